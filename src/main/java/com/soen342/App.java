@@ -6,12 +6,15 @@ import com.soen342.service.RetrievalDAO;
 import com.soen342.service.ConnectionDAO;
 import com.soen342.domain.Search;
 import com.soen342.service.ConnectionCatalog;
+import com.soen342.service.CityDictionary;
 import com.soen342.service.SearchService;
+import com.soen342.service.SearchBudget;
 import com.soen342.domain.Parameters;
 import com.soen342.domain.Reservation;
 import com.soen342.domain.Booking;
 import com.soen342.service.SearchResult;
 import com.soen342.domain.Trip;
+import com.soen342.domain.Connection;
 import com.soen342.domain.Client;
 import java.sql.Time;
 import java.io.File;
@@ -20,6 +23,12 @@ import java.util.Scanner;
 
 
 public class App {
+    // Longest an interactive search may run before showing what it has found
+    private static final long SEARCH_TIME_LIMIT_MILLIS = 2000;
+
+    // Compiled copy of the catalog, rebuilt automatically whenever the connections table changes
+    private static final String SNAPSHOT_PATH = "railway.snapshot";
+
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
 
@@ -40,29 +49,42 @@ public class App {
         RetrievalDAO retrievalDAO = new RetrievalDAO(dbManager.getConnection());
         ConnectionDAO connectionDAO = new ConnectionDAO(dbManager.getConnection());
         
-        // Load connections from CSV into database (only once, they persist)
-        String csvPath = "src/main/java/com/soen342/resources/eu_rail_network.csv";
-        File csvFile = new File(csvPath);
-        
-        if (!csvFile.exists()) {
-            System.out.println("Error: CSV file not found at " + csvFile.getAbsolutePath());
-            scanner.close();
-            dbManager.closeConnection();
-            System.exit(1);
-        }
-        
-        // Load connections into catalog AND database
         ConnectionCatalog catalog = new ConnectionCatalog();
-        catalog.loadFromFile(csvPath);
-        
+
         // Save connections to database if not already there
         int existingConnections = connectionDAO.getConnectionCount();
         if (existingConnections == 0) {
+            // Load connections from CSV into database (only once, they persist)
+            String csvPath = "src/main/java/com/soen342/resources/eu_rail_network.csv";
+            File csvFile = new File(csvPath);
+
+            if (!csvFile.exists()) {
+                System.out.println("Error: CSV file not found at " + csvFile.getAbsolutePath());
+                scanner.close();
+                dbManager.closeConnection();
+                System.exit(1);
+            }
+
+            // Parse the CSV and import it into the database
+            catalog.loadFromFile(csvPath);
             System.out.println("Loading connections into database for first time...");
-            for (com.soen342.domain.Connection conn : catalog.getAllConnections()) {
-                connectionDAO.saveConnection(conn);
+            List<Connection> connections = catalog.getAllConnections();
+            long importStart = System.nanoTime();
+            int inserted = connectionDAO.saveConnections(connections);
+            double importSeconds = (System.nanoTime() - importStart) / 1e9;
+            if (inserted >= 0) {
+                System.out.printf("Imported %d connections (%d new) in %.0f ms (%.0f rows/s)%n",
+                        connections.size(), inserted, importSeconds * 1000,
+                        connections.size() / Math.max(importSeconds, 1e-9));
             }
-            System.out.println("Loaded " + catalog.getAllConnections().size() + " connections into database.");
+        }
+
+        // The database is the source of truth; while it is unchanged the snapshot skips the scan and index builds
+        if (catalog.loadFromDatabaseWithSnapshot(dbManager.getConnection(), SNAPSHOT_PATH) < 0) {
+            System.out.println("Error: could not load connections from the database");
+            scanner.close();
+            dbManager.closeConnection();
+            System.exit(1);
         }
 
         // Main menu
@@ -98,13 +120,17 @@ public class App {
         double secondClassRate = 0.0;
 
         // Take user inputs for Parameters
+        SearchService searchService = new SearchService(catalog);
+
         System.out.print("\nEnter departure city (press Enter to skip): ");
         String departureCity = scanner.nextLine().trim();
         if (departureCity.isEmpty()) departureCity = null;
+        warnIfUnknownCity(searchService, departureCity);
 
         System.out.print("Enter arrival city (press Enter to skip): ");
         String arrivalCity = scanner.nextLine().trim();
         if (arrivalCity.isEmpty()) arrivalCity = null;
+        warnIfUnknownCity(searchService, arrivalCity);
 
         System.out.print("Enter departure time (HH:MM:SS or press Enter to skip): ");
         String depTimeInput = scanner.nextLine().trim();
@@ -142,13 +168,15 @@ public class App {
                 secondClassRate
         );
 
+        // Pick up connections changed in the database since startup (keeps the loaded ones if that fails)
+        catalog.reloadFromDatabase(dbManager.getConnection());
+
         // Perform search
         Search search = new Search(parameters);
-        SearchService searchService = new SearchService(catalog);
-        SearchResult result = searchService.searchTrips(search);
+        SearchResult result = searchService.searchTrips(search, new SearchBudget(SEARCH_TIME_LIMIT_MILLIS, 0));
 
         // If no results
-        if (result.getSearchResultDirect().isEmpty() && result.getSearchResultIndirect().isEmpty()) {
+        if (result.isEmpty()) {
             System.out.println("\nNo matching trips found.");
             scanner.close();
             dbManager.closeConnection();
@@ -243,6 +271,15 @@ public class App {
         dbManager.closeConnection();
     }
     
+    /**
+     * Tells the user when a city they typed is not served by any connection
+     */
+    private static void warnIfUnknownCity(SearchService searchService, String city) {
+        if (city != null && searchService.resolveCity(city) == CityDictionary.UNKNOWN) {
+            System.out.println("Warning: no connections found for city \"" + city + "\".");
+        }
+    }
+
     /**
      * Handles the retrieve reservations flow
      */
@@ -2,6 +2,7 @@ package com.soen342.domain;
 
 import java.sql.Time;
 import java.util.List;
+import java.util.Objects;
 
 public class Trip {
     private static int counter = 0;
@@ -84,12 +85,28 @@ public class Trip {
     }
     
     //Needed to compare two Trip objects to avoid duplicates in the list of trips
+    //Two trips are the same itinerary if they use the same route IDs in the same order
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Trip)) return false;
         Trip t = (Trip) o;
-        return this.getConnections().equals(t.getConnections());
+        List<Connection> other = t.getConnections();
+        if (connections.size() != other.size()) return false;
+        for (int i = 0; i < connections.size(); i++) {
+            if (!Objects.equals(connections.get(i).getRouteID(), other.get(i).getRouteID())) return false;
+        }
+        return true;
+    }
+
+    //Must agree with equals so trips can be de-duplicated in a HashSet
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (Connection conn : connections) {
+            hash = 31 * hash + Objects.hashCode(conn.getRouteID());
+        }
+        return hash;
     }
     
     /**
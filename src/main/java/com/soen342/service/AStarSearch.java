@@ -0,0 +1,136 @@
+package com.soen342.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * Best-first (A*) search for the trips with the least riding time.
+ *
+ * Partial itineraries wait in a priority queue ordered by riding time so far plus
+ * DestinationBounds.minMinutes from their last city to the destination. That bound never
+ * overestimates and obeys the triangle inequality, so trips come out of the queue
+ * fastest first and the search can stop after the first few. Partial itineraries that
+ * cannot reach the destination in the legs left, or whose fare or arrival bound already
+ * breaks the search filters, are never queued.
+ *
+ * Follows the same itinerary rules as ItineraryWalker and applies the search filters
+ * through the same SearchFilters checks as searchDirect and searchIndirect, so with no
+ * limit it returns exactly the trips of those two searches (overnight ones included),
+ * only in a different order.
+ */
+class AStarSearch {
+
+    // One partial itinerary in the queue
+    private static final class Label {
+        int[] rows;
+        int days;
+        int travelMinutes;
+        int elapsedMinutes;
+        double fcRate;
+        double scRate;
+        int estimate;   // travelMinutes + lower bound for the rest
+        long order;     // insertion order, so ties come out deterministically
+    }
+
+    private ConnectionCatalog catalog;
+    private ConnectionTable table;
+    private TransferTable transfers;
+    private DestinationBounds bounds;   // to the destination of the current search
+    private int maxLegs;
+
+    AStarSearch(ConnectionCatalog catalog, int maxLegs) {
+        this.catalog = catalog;
+        this.table = catalog.getTable();
+        this.transfers = catalog.getTransfers();
+        this.maxLegs = maxLegs;
+    }
+
+    /**
+     * Returns up to limit trips (0 = all), least riding time first
+     */
+    List<TripCandidate> search(Parameters searchParams, int origin, int destination, int limit) {
+        List<TripCandidate> result = new ArrayList<>();
+        if (origin == CityDictionary.UNKNOWN || destination == CityDictionary.UNKNOWN || origin == destination) return result;
+        SearchFilters filters = SearchFilters.of(searchParams, table);
+        if (filters.matchesNothing()) return result;
+        bounds = maxLegs <= ConnectionCatalog.MAX_INDIRECT_LEGS
+                ? catalog.boundsBetween(origin, destination) : catalog.boundsTo(destination);
+        if (!bounds.isReachable(origin, maxLegs)) return result;
+
+        PriorityQueue<Label> queue = new PriorityQueue<>((a, b) -> a.estimate != b.estimate
+                ? Integer.compare(a.estimate, b.estimate) : Long.compare(a.order, b.order));
+        long[] counter = new long[1];
+
+        int[] departures = catalog.getDeparturesFrom(origin);
+        for (int i = catalog.firstDepartureAtOrAfter(origin, filters.earliestDepartureMinute()); i < departures.length; i++) {
+            int row = departures[i];
+            if (table.arrivalCity(row) == origin || !filters.departsInTime(table, row)) continue;
+            if (!filters.trainTypeMatches(table, row)) continue;
+            int days = filters.days & table.dayMask(row);
+            if (days == DayMask.NONE) continue;
+            offer(queue, counter, filters, destination, new int[] {row}, days, table.durationMinutes(row),
+                    table.durationMinutes(row), table.firstClassRate(row), table.secondClassRate(row));
+        }
+
+        while (!queue.isEmpty()) {
+            Label label = queue.poll();
+            int last = label.rows[label.rows.length - 1];
+            if (table.arrivalCity(last) == destination) {
+                result.add(new TripCandidate(label.rows, label.travelMinutes, label.elapsedMinutes, label.fcRate, label.scRate));
+                if (result.size() == limit) break;
+                continue;
+            }
+            if (label.rows.length == maxLegs) continue;
+
+            for (int t = transfers.start(last); t < transfers.end(last); t++) {
+                int row = transfers.target(t);
+                if (visits(label.rows, origin, table.arrivalCity(row)) || !filters.trainTypeMatches(table, row)) continue;
+                int days = catalog.connectingDays(last, label.days, row);
+                if (days == DayMask.NONE) continue;
+
+                int[] rows = Arrays.copyOf(label.rows, label.rows.length + 1);
+                rows[label.rows.length] = row;
+                offer(queue, counter, filters, destination, rows, days,
+                        label.travelMinutes + table.durationMinutes(row),
+                        label.elapsedMinutes + catalog.layoverMinutes(last, row) + table.durationMinutes(row),
+                        label.fcRate + table.firstClassRate(row), label.scRate + table.secondClassRate(row));
+            }
+        }
+        return result;
+    }
+
+    // Queues the partial itinerary unless the lower bounds show it can never lead to a valid trip
+    private void offer(PriorityQueue<Label> queue, long[] counter, SearchFilters filters, int destination,
+                       int[] rows, int days, int travel, int elapsed, double fcRate, double scRate) {
+        int city = table.arrivalCity(rows[rows.length - 1]);
+        if (!bounds.isReachable(city, maxLegs - rows.length)) return;
+
+        int restMinutes = bounds.minMinutes(city);
+        if (!filters.withinBudget(fcRate + bounds.minFCRate(city), scRate + bounds.minSCRate(city))) return;
+        if (!filters.arrivesInTime(table.departureMinute(rows[0]), elapsed + restMinutes)) return;
+
+        Label label = new Label();
+        label.rows = rows;
+        label.days = days;
+        label.travelMinutes = travel;
+        label.elapsedMinutes = elapsed;
+        label.fcRate = fcRate;
+        label.scRate = scRate;
+        label.estimate = travel + restMinutes;
+        label.order = counter[0]++;
+        queue.add(label);
+    }
+
+    // True if the itinerary has already been in city
+    private boolean visits(int[] rows, int origin, int city) {
+        if (city == origin) return true;
+        for (int row : rows) {
+            if (table.arrivalCity(row) == city) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,299 @@
+package com.soen342.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Compiled binary snapshot of a loaded catalog: the city dictionary, the connection
+ * columns, the departure/arrival indexes, the transfer table and the dense lower bounds
+ * (left out when the catalog uses the RegionPartition, which is rebuilt instead).
+ * Reading it back skips CSV parsing or the database scan, and the expensive index builds.
+ *
+ * Layout (big-endian): magic, format version, the fingerprint of the rules the indexes
+ * were derived with (ConnectionCatalog.indexRulesChecksum), the source it was built from
+ * (a CSV file: its size and CRC32; the database: its generation ID, last rowid and change
+ * log position),
+ * CRC32 and length of the payload, then the payload. A snapshot whose format, rules or
+ * source does not match, or whose payload is damaged, is rejected.
+ */
+public class CatalogSnapshot {
+
+    private static final long MAGIC = 0x5241494C534E4150L; // "RAILSNAP"
+
+    // Bump whenever the layout changes; changes to how the indexes are derived are covered
+    // by the rules fingerprint (bump ConnectionCatalog.INDEX_VERSION for those)
+    public static final int FORMAT_VERSION = 6;
+
+    // Kinds of source a snapshot can be built from
+    private static final int CSV_SOURCE = 1;
+    private static final int DATABASE_SOURCE = 2;
+
+    private static final int HEADER_BYTES = 8 + 4 + 8 + 4 + 8 + 8 + 8 + 8 + 4;
+
+    /**
+     * Writes the catalog's current contents; csvPath is the file they were loaded from
+     */
+    public static void write(ConnectionCatalog catalog, String csvPath, String snapshotPath) {
+        try {
+            write(catalog, CSV_SOURCE, 0, Files.size(Paths.get(csvPath)), checksum(csvPath), snapshotPath);
+        } catch (IOException e) {
+            System.err.println("Error writing catalog snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the catalog's current contents, loaded from the database with the given
+     * generation ID up to the given rowid and change log position
+     */
+    static void writeForDatabase(ConnectionCatalog catalog, long generation, long lastRowId, long lastChangeId,
+                                 String snapshotPath) {
+        try {
+            write(catalog, DATABASE_SOURCE, generation, lastRowId, lastChangeId, snapshotPath);
+        } catch (IOException e) {
+            System.err.println("Error writing catalog snapshot: " + e.getMessage());
+        }
+    }
+
+    private static void write(ConnectionCatalog catalog, int sourceKind, long sourceGeneration, long sourceKey,
+                              long sourceChecksum, String snapshotPath) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writePayload(catalog, out);
+        out.flush();
+        byte[] payload = bytes.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        try (DataOutputStream file = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(snapshotPath)))) {
+            file.writeLong(MAGIC);
+            file.writeInt(FORMAT_VERSION);
+            file.writeLong(ConnectionCatalog.indexRulesChecksum());
+            file.writeInt(sourceKind);
+            file.writeLong(sourceGeneration);
+            file.writeLong(sourceKey);
+            file.writeLong(sourceChecksum);
+            file.writeLong(crc.getValue());
+            file.writeInt(payload.length);
+            file.write(payload);
+        }
+    }
+
+    /**
+     * Loads the snapshot into the catalog with a memory-mapped read. Returns false, leaving
+     * the catalog untouched, if the snapshot is missing, damaged, from another format
+     * version, derived under other rules, or was not built from the current contents of csvPath.
+     */
+    public static boolean read(ConnectionCatalog catalog, String csvPath, String snapshotPath) {
+        if (!Files.isRegularFile(Paths.get(snapshotPath))) return false;
+        try {
+            return read(catalog, CSV_SOURCE, 0, Files.size(Paths.get(csvPath)), checksum(csvPath), snapshotPath);
+        } catch (IOException e) {
+            System.err.println("Error reading catalog snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Same as read, for a snapshot written by writeForDatabase: rejected unless the database
+     * is the same one (generation ID) and still at the rowid and change log position it was
+     * written at. A deleted and re-imported database can be back at the same rowid and
+     * position with other rows, so the position alone does not identify its contents.
+     */
+    static boolean readForDatabase(ConnectionCatalog catalog, long generation, long lastRowId, long lastChangeId,
+                                   String snapshotPath) {
+        return read(catalog, DATABASE_SOURCE, generation, lastRowId, lastChangeId, snapshotPath);
+    }
+
+    private static boolean read(ConnectionCatalog catalog, int sourceKind, long sourceGeneration, long sourceKey,
+                                long sourceChecksum, String snapshotPath) {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.isRegularFile(path)) return false;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) return false;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getLong() != MAGIC || buffer.getInt() != FORMAT_VERSION) return false;
+            if (buffer.getLong() != ConnectionCatalog.indexRulesChecksum()) return false;
+            if (buffer.getInt() != sourceKind || buffer.getLong() != sourceGeneration) return false;
+            if (buffer.getLong() != sourceKey || buffer.getLong() != sourceChecksum) return false;
+
+            long payloadChecksum = buffer.getLong();
+            int payloadLength = buffer.getInt();
+            if (payloadLength != buffer.remaining()) return false;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice());
+            if (crc.getValue() != payloadChecksum) return false;
+
+            readPayload(catalog, buffer);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error reading catalog snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // CRC32 of a file's bytes, read through a memory map
+    static long checksum(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            CRC32 crc = new CRC32();
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            return crc.getValue();
+        }
+    }
+
+    private static void writePayload(ConnectionCatalog catalog, DataOutputStream out) throws IOException {
+        CityDictionary cities = catalog.getCityDictionary();
+        ConnectionTable table = catalog.getTable();
+        int cityCount = cities.size();
+        int rows = table.size();
+
+        out.writeInt(cityCount);
+        for (int c = 0; c < cityCount; c++) writeString(out, cities.nameOf(c));
+        writeStrings(out, table.getTrainTypeNames());
+        writeStrings(out, table.getDaysLabels());
+
+        out.writeInt(rows);
+        for (int row = 0; row < rows; row++) writeString(out, table.routeId(row));
+        for (int row = 0; row < rows; row++) out.writeInt(table.departureCity(row));
+        for (int row = 0; row < rows; row++) out.writeInt(table.arrivalCity(row));
+        for (int row = 0; row < rows; row++) out.writeInt(table.departureMinute(row));
+        for (int row = 0; row < rows; row++) out.writeInt(table.arrivalMinute(row));
+        for (int row = 0; row < rows; row++) out.writeShort(table.trainType(row));
+        for (int row = 0; row < rows; row++) out.writeShort(table.daysLabelCode(row));
+        for (int row = 0; row < rows; row++) out.writeByte(table.dayMask(row));
+        for (int row = 0; row < rows; row++) out.writeDouble(table.firstClassRate(row));
+        for (int row = 0; row < rows; row++) out.writeDouble(table.secondClassRate(row));
+
+        writeInts(out, catalog.getConnectionsByDeparture());
+        for (int c = 0; c < cityCount; c++) writeInts(out, catalog.getDeparturesFrom(c));
+        for (int c = 0; c < cityCount; c++) writeInts(out, catalog.getArrivalsAt(c));
+        writeInts(out, catalog.getTransfers().getOffsets());
+        writeInts(out, catalog.getTransfers().getTargets());
+
+        LowerBounds bounds = catalog.getLowerBounds();
+        out.writeBoolean(bounds != null);
+        if (bounds == null) return;
+        writeInts(out, bounds.getMinMinutes());
+        for (double rate : bounds.getMinFCRates()) out.writeDouble(rate);
+        for (double rate : bounds.getMinSCRates()) out.writeDouble(rate);
+        out.write(bounds.getMinLegs());
+    }
+
+    private static void readPayload(ConnectionCatalog catalog, ByteBuffer in) {
+        int cityCount = in.getInt();
+        String[] cityNames = new String[cityCount];
+        for (int c = 0; c < cityCount; c++) cityNames[c] = readString(in);
+        List<String> trainTypeNames = readStrings(in);
+        List<String> daysLabels = readStrings(in);
+
+        int rows = in.getInt();
+        String[] routeIds = new String[rows];
+        for (int row = 0; row < rows; row++) routeIds[row] = readString(in);
+        int[] departureCity = readInts(in, rows);
+        int[] arrivalCity = readInts(in, rows);
+        int[] departureMinute = readInts(in, rows);
+        int[] arrivalMinute = readInts(in, rows);
+        short[] trainType = readShorts(in, rows);
+        short[] daysLabel = readShorts(in, rows);
+        byte[] dayMask = readBytes(in, rows);
+        double[] firstClassRate = readDoubles(in, rows);
+        double[] secondClassRate = readDoubles(in, rows);
+
+        int[] connectionsByDeparture = readInts(in, in.getInt());
+        int[][] departuresByCity = new int[cityCount][];
+        for (int c = 0; c < cityCount; c++) departuresByCity[c] = readInts(in, in.getInt());
+        int[][] arrivalsByCity = new int[cityCount][];
+        for (int c = 0; c < cityCount; c++) arrivalsByCity[c] = readInts(in, in.getInt());
+        int[] transferOffsets = readInts(in, in.getInt());
+        int[] transferTargets = readInts(in, in.getInt());
+
+        LowerBounds bounds = null;
+        if (in.get() != 0) {
+            int[] minMinutes = readInts(in, in.getInt());
+            double[] minFCRate = readDoubles(in, cityCount * cityCount);
+            double[] minSCRate = readDoubles(in, cityCount * cityCount);
+            byte[] minLegs = readBytes(in, cityCount * cityCount);
+            bounds = LowerBounds.restore(cityCount, minMinutes, minFCRate, minSCRate, minLegs);
+        }
+
+        // Everything was read without error; only now replace the catalog's contents
+        CityDictionary cities = catalog.getCityDictionary();
+        cities.clear();
+        for (String name : cityNames) cities.intern(name);
+        catalog.getTable().restore(rows, routeIds, departureCity, arrivalCity, departureMinute, arrivalMinute,
+                trainType, daysLabel, dayMask, firstClassRate, secondClassRate, trainTypeNames, daysLabels);
+        catalog.restoreIndexes(connectionsByDeparture, departuresByCity, arrivalsByCity,
+                new TransferTable(transferOffsets, transferTargets), bounds);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) writeString(out, value);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) out.writeInt(value);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = readBytes(in, in.getInt());
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readStrings(ByteBuffer in) {
+        int count = in.getInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) values.add(readString(in));
+        return values;
+    }
+
+    // Bulk reads straight from the mapped buffer
+    private static int[] readInts(ByteBuffer in, int count) {
+        int[] values = new int[count];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    private static short[] readShorts(ByteBuffer in, int count) {
+        short[] values = new short[count];
+        in.asShortBuffer().get(values);
+        in.position(in.position() + count * Short.BYTES);
+        return values;
+    }
+
+    private static double[] readDoubles(ByteBuffer in, int count) {
+        double[] values = new double[count];
+        in.asDoubleBuffer().get(values);
+        in.position(in.position() + count * Double.BYTES);
+        return values;
+    }
+
+    private static byte[] readBytes(ByteBuffer in, int count) {
+        byte[] values = new byte[count];
+        in.get(values);
+        return values;
+    }
+}
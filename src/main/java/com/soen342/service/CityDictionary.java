@@ -0,0 +1,71 @@
+package com.soen342.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Interns city names to dense integer IDs (0, 1, 2, ...)
+ * Names are trimmed and case-folded, so "Paris", " paris" and "PARIS" share one ID
+ */
+public class CityDictionary {
+
+    public static final int UNKNOWN = -1;
+
+    private Map<String, Integer> idsByKey;
+    private List<String> names;
+
+    public CityDictionary() {
+        this.idsByKey = new HashMap<>();
+        this.names = new ArrayList<>();
+    }
+
+    /**
+     * Normalizes a city name into its lookup key
+     */
+    public static String normalize(String city) {
+        return city == null ? null : city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the ID of a city, assigning the next free ID the first time it is seen
+     */
+    public int intern(String city) {
+        String key = normalize(city);
+        Integer id = idsByKey.get(key);
+        if (id == null) {
+            id = names.size();
+            idsByKey.put(key, id);
+            names.add(city.trim());
+        }
+        return id;
+    }
+
+    /**
+     * Looks up the ID of a city without adding it
+     * Returns UNKNOWN if the city is null, blank or not in the dictionary
+     */
+    public int idOf(String city) {
+        if (city == null) return UNKNOWN;
+        Integer id = idsByKey.get(normalize(city));
+        return id == null ? UNKNOWN : id;
+    }
+
+    /**
+     * Returns the display name of a city (as first seen when loading)
+     */
+    public String nameOf(int id) {
+        return names.get(id);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public void clear() {
+        idsByKey.clear();
+        names.clear();
+    }
+}
@@ -1,28 +1,286 @@
 package com.soen342.service;
 
-import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Time;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import com.soen342.domain.Trip;
 import com.soen342.domain.Parameters;
 import com.soen342.domain.Connection;
 
 public class ConnectionCatalog {
 
-    private List<Connection> connections;
+    // Longest layover any transfer rule allows (daytime rule), in minutes
+    static final int MAX_LAYOVER_MINUTES = 120;
+
+    // searchIndirect looks for trips with 2 up to this many connections
+    static final int MAX_INDIRECT_LEGS = 3;
+
+    // Bump whenever the rules or code deriving the indexes change (layover rules, TransferTable,
+    // LowerBounds), so indexes saved by an older build are recomputed instead of reused
+    static final int INDEX_VERSION = 1;
+
+    // Networks with at least this many cities use the RegionPartition instead of the dense
+    // LowerBounds, whose matrix grows with the square of the number of cities
+    static final int PARTITION_MIN_CITIES = 1024;
+
+    private CityDictionary cities;
+
+    // Columnar store of every connection; search code reads these arrays directly
+    private ConnectionTable table;
+
+    // Adjacency index: city ID -> rows of the connections leaving / entering that city.
+    // Departures are sorted by departure minute; departureMinutesByCity mirrors them for binary search.
+    private int[][] departuresByCity;
+    private int[][] departureMinutesByCity;
+    private int[][] arrivalsByCity;
+
+    // Every row, ordered by departure minute (used by the connection scan router)
+    private int[] connectionsByDeparture;
+
+    // For every row, the rows it can transfer onto (layover rules already checked)
+    private TransferTable transfers;
+
+    // City-by-city least riding time, fares and legs; see LowerBounds (null when partitioned)
+    private LowerBounds lowerBounds;
+
+    // Cities grouped into regions with a border-station overlay; see RegionPartition.
+    // Built with the indexes when partitioned, otherwise on first use
+    private RegionPartition regions;
+
+    // Overrides the choice by network size (null = PARTITION_MIN_CITIES decides)
+    private Boolean partitioned;
+
+    // Bumped whenever the indexes are rebuilt, so derived structures can tell they are stale
+    private int version;
+
+    // Where the last database load got to, for reloadFromDatabase (-1 = not loaded from the database)
+    private long lastRowId = -1;
+    private long lastChangeId;
+
+    // Generation ID of the database it was loaded from; a recreated database gets a new one
+    private long lastGeneration;
+
+    private static final String SELECT_CONNECTIONS = """
+        SELECT rowid, route_id, departure_city, arrival_city, departure_time, arrival_time,
+               train_type, days_of_operation, first_class_rate, second_class_rate
+        FROM connections
+    """;
+
+    // Rows the SQLite driver fetches per round trip while streaming the connections table
+    private static final int DB_FETCH_SIZE = 1000;
 
     public ConnectionCatalog() {
-        this.connections = new ArrayList<>();
+        this.cities = new CityDictionary();
+        this.table = new ConnectionTable(cities);
+        buildIndexes();
     }
 
+    // Builds Connection objects for every row (used when exporting the catalog)
     public List<Connection> getAllConnections() {
+        List<Connection> connections = new ArrayList<>(table.size());
+        for (int row = 0; row < table.size(); row++) {
+            connections.add(table.connection(row));
+        }
         return connections;
     }
 
-    private String expandDays(String daysStr) {
+    public CityDictionary getCityDictionary() {
+        return cities;
+    }
+
+    public ConnectionTable getTable() {
+        return table;
+    }
+
+    public Connection getConnection(int row) {
+        return table.connection(row);
+    }
+
+    // Returns the rows of all connections leaving the given city, earliest departure first
+    public int[] getDeparturesFrom(int cityId) {
+        return departuresByCity[cityId];
+    }
+
+    /**
+     * Binary search: index into getDeparturesFrom(cityId) of the first connection departing
+     * at or after the given minute of the day (the array length if there is none)
+     */
+    public int firstDepartureAtOrAfter(int cityId, int minuteOfDay) {
+        int[] minutes = departureMinutesByCity[cityId];
+        int lo = 0;
+        int hi = minutes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (minutes[mid] < minuteOfDay) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Returns the rows of all connections arriving in the given city
+    public int[] getArrivalsAt(int cityId) {
+        return arrivalsByCity[cityId];
+    }
+
+    public TransferTable getTransfers() {
+        return transfers;
+    }
+
+    // The dense bounds, or null when the catalog is partitioned
+    public LowerBounds getLowerBounds() {
+        return lowerBounds;
+    }
+
+    public RegionPartition getRegions() {
+        if (regions == null) regions = RegionPartition.build(this, MAX_INDIRECT_LEGS);
+        return regions;
+    }
+
+    // True if the bounds come from the RegionPartition rather than the dense LowerBounds
+    public boolean isPartitioned() {
+        return partitioned != null ? partitioned : cities.size() >= PARTITION_MIN_CITIES;
+    }
+
+    // Forces the partitioned (or dense) bounds regardless of network size; used by tests
+    void setPartitioned(boolean partitioned) {
+        this.partitioned = partitioned;
+        buildBounds();
+    }
+
+    // Lower bounds from every city to the destination, from whichever bounds the catalog keeps
+    public DestinationBounds boundsTo(int destination) {
+        return lowerBounds != null ? lowerBounds.toDestination(destination) : regions.boundsTo(destination);
+    }
+
+    // Lower bounds to the destination for itineraries of at most MAX_INDIRECT_LEGS legs from the
+    // origin. A partitioned catalog works them out only for the cities such an itinerary can pass
+    // through (see RegionPartition.View), as the search asks for them, not for every city.
+    DestinationBounds boundsBetween(int origin, int destination) {
+        return isPartitioned() ? getRegions().view(origin, destination).getBounds() : boundsTo(destination);
+    }
+
+    // Answered from the precomputed bounds, without searching: can the destination be
+    // reached from the origin with at most maxLegs connections (ignoring times and days)?
+    public boolean isReachable(int origin, int destination, int maxLegs) {
+        if (origin == CityDictionary.UNKNOWN || destination == CityDictionary.UNKNOWN) return false;
+        if (lowerBounds != null) return lowerBounds.isReachable(origin, destination, maxLegs);
+        return regions.minLegs(origin, destination) <= maxLegs;
+    }
+
+    // Changes every time the catalog is (re)loaded
+    public int getVersion() {
+        return version;
+    }
+
+    // Returns every row ordered by departure minute (ties keep file order)
+    public int[] getConnectionsByDeparture() {
+        return connectionsByDeparture;
+    }
+
+    // Rebuilds the adjacency index from the table's city columns
+    private void buildIndexes() {
+        int n = table.size();
+        int[] departureCityIds = new int[n];
+        int[] arrivalCityIds = new int[n];
+        for (int row = 0; row < n; row++) {
+            departureCityIds[row] = table.departureCity(row);
+            arrivalCityIds[row] = table.arrivalCity(row);
+        }
+        connectionsByDeparture = sortByDepartureMinute();
+
+        // Bucketing rows in departure order leaves each city's departures sorted by time
+        departuresByCity = groupByCity(departureCityIds, connectionsByDeparture);
+        fillDepartureMinutes();
+        arrivalsByCity = groupByCity(arrivalCityIds, null);
+        transfers = TransferTable.build(this);
+        buildBounds();
+        version++;
+    }
+
+    // The partition on large networks, the dense bounds otherwise
+    private void buildBounds() {
+        lowerBounds = null;
+        regions = null;
+        if (isPartitioned()) regions = RegionPartition.build(this, MAX_INDIRECT_LEGS);
+        else lowerBounds = LowerBounds.build(this);
+    }
+
+    /**
+     * Installs indexes read back from a snapshot (see CatalogSnapshot) instead of building them.
+     * The table and city dictionary must already hold the matching rows. lowerBounds is null
+     * if the snapshot was saved by a partitioned catalog.
+     */
+    void restoreIndexes(int[] connectionsByDeparture, int[][] departuresByCity, int[][] arrivalsByCity,
+                        TransferTable transfers, LowerBounds lowerBounds) {
+        this.connectionsByDeparture = connectionsByDeparture;
+        this.departuresByCity = departuresByCity;
+        fillDepartureMinutes();
+        this.arrivalsByCity = arrivalsByCity;
+        this.transfers = transfers;
+        this.lowerBounds = lowerBounds;
+        this.regions = null;
+        if (lowerBounds == null || isPartitioned()) buildBounds();
+        lastRowId = -1;
+        version++;
+    }
+
+    // Departure minute of every entry of departuresByCity, for the binary search
+    private void fillDepartureMinutes() {
+        departureMinutesByCity = new int[departuresByCity.length][];
+        for (int c = 0; c < departuresByCity.length; c++) {
+            departureMinutesByCity[c] = new int[departuresByCity[c].length];
+            for (int i = 0; i < departuresByCity[c].length; i++) {
+                departureMinutesByCity[c][i] = table.departureMinute(departuresByCity[c][i]);
+            }
+        }
+    }
+
+    // Counting sort of all rows on departure minute (there are only 1440 distinct keys)
+    private int[] sortByDepartureMinute() {
+        int[] starts = new int[ConnectionTable.MINUTES_PER_DAY + 1];
+        for (int row = 0; row < table.size(); row++) starts[table.departureMinute(row) + 1]++;
+        for (int m = 0; m < ConnectionTable.MINUTES_PER_DAY; m++) starts[m + 1] += starts[m];
+
+        int[] sorted = new int[table.size()];
+        for (int row = 0; row < table.size(); row++) {
+            sorted[starts[table.departureMinute(row)]++] = row;
+        }
+        return sorted;
+    }
+
+    // Buckets rows by city ID (counting sort), visiting rows in the given order (file order if null)
+    private int[][] groupByCity(int[] cityIds, int[] order) {
+        int[] counts = new int[cities.size()];
+        for (int id : cityIds) counts[id]++;
+
+        int[][] buckets = new int[cities.size()][];
+        for (int c = 0; c < buckets.length; c++) buckets[c] = new int[counts[c]];
+
+        int[] fill = new int[cities.size()];
+        for (int i = 0; i < cityIds.length; i++) {
+            int row = order == null ? i : order[i];
+            int c = cityIds[row];
+            buckets[c][fill[c]++] = row;
+        }
+        return buckets;
+    }
+
+    static String expandDays(String daysStr) {
 
         List<String> days = List.of("Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun");
 
@@ -54,78 +312,380 @@ public class ConnectionCatalog {
     }
 
     public void loadFromFile(String filePath) {
-        connections.clear();
+        table.clear();
+        cities.clear();
+        lastRowId = -1;
+
+        // UTF-8 like the parallel loader, whatever the platform charset (city names are not ASCII)
+        try (FileReader reader = new FileReader(filePath, StandardCharsets.UTF_8)) {
+            RailCsvTokenizer csv = new RailCsvTokenizer(reader);
+            csv.nextRecord(); // header
+            while (csv.nextRecord()) {
+                if (csv.fieldCount() < 9) continue;
+
+                // Times and rates are parsed straight from the characters; "(+1d)" is ignored
+                table.add(csv.text(0), csv.text(1), csv.text(2), csv.minutes(3), csv.minutes(4),
+                        csv.text(5), expandDays(csv.text(6)), csv.decimal(7), csv.decimal(8));
+            }
+
+        } catch (IOException e) {
+            System.err.println("Error loading connections: " + e.getMessage());
+        }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line = reader.readLine();
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+        buildIndexes();
+    }
 
-                if (parts.length < 9) continue;
+    /**
+     * Loads the catalog from the connections table of the database, streaming it in rowid
+     * order (a single forward-only scan) into a new columnar store. Returns the number of
+     * rows loaded, or -1 if the database could not be read; the catalog then keeps its
+     * previous contents.
+     */
+    public int loadFromDatabase(java.sql.Connection db) {
+        CityDictionary loadedCities = new CityDictionary();
+        ConnectionTable loaded = new ConnectionTable(loadedCities);
+        long generation;
+        long changeId;
+        long rowId;
+        try {
+            generation = latestGeneration(db);
+            // Read the change log position first: changes made during the scan are picked up by the next reload
+            changeId = latestChangeId(db);
+            rowId = readRowsFromDatabase(db, 0, loaded);
+        } catch (SQLException e) {
+            System.err.println("Error loading connections from database: " + e.getMessage());
+            return -1;
+        }
 
-                for (int i = 0; i < parts.length; i++) {
-                    parts[i] = parts[i].replace("\"", "").trim();
-                }
+        cities = loadedCities;
+        table = loaded;
+        lastGeneration = generation;
+        lastRowId = rowId;
+        lastChangeId = changeId;
+        buildIndexes();
+        trimChanges(db);
+        return table.size();
+    }
 
-                // Extract values
-                String routeID = parts[0];
-                String departureCity = parts[1];
-                String arrivalCity = parts[2];
+    /**
+     * Brings a catalog loaded with loadFromDatabase up to date, reading only the rows
+     * inserted (by rowid) or updated (from the connection_changes log) since the last load.
+     * A deleted row shifts the row numbers of the rest, so any delete falls back to a full
+     * load, as do log entries missing because another client trimmed them and a database
+     * recreated since the last load (its generation ID changed). Returns the
+     * number of rows read, or -1 if the database could not be read (the catalog is unchanged).
+     */
+    public int reloadFromDatabase(java.sql.Connection db) {
+        if (lastRowId < 0) return loadFromDatabase(db);
+
+        // Everything is read before the table is touched, so a failed read leaves it as it was
+        Set<String> updatedRoutes = new LinkedHashSet<>();
+        ConnectionTable updates = new ConnectionTable(new CityDictionary());
+        IntList updatedRows = new IntList();
+        ConnectionTable inserts = new ConnectionTable(new CityDictionary());
+        long changeId;
+        long rowId;
+        try {
+            if (latestGeneration(db) != lastGeneration) return loadFromDatabase(db);
+            changeId = readChanges(db, updatedRoutes);
+            if (changeId < 0) return loadFromDatabase(db);
+            readUpdatedRows(db, updatedRoutes, updates, updatedRows);
+            rowId = readRowsFromDatabase(db, lastRowId, inserts);
+        } catch (SQLException e) {
+            System.err.println("Error reloading connections from database: " + e.getMessage());
+            return -1;
+        }
 
-                String depTimeStr = parts[3].trim() + ":00";
-                Time departureTime = Time.valueOf(depTimeStr);
+        for (int i = 0; i < updates.size(); i++) copyRow(updates, i, updatedRows.get(i));
+        for (int i = 0; i < inserts.size(); i++) copyRow(inserts, i, -1);
+        lastRowId = rowId;
+        lastChangeId = changeId;
 
-                String arrTimeStr = parts[4].trim();
-                arrTimeStr = arrTimeStr.split(" ")[0] + ":00"; // Remove (+1d)
-                Time arrivalTime = Time.valueOf(arrTimeStr);
+        int changed = updates.size() + inserts.size();
+        if (changed > 0) buildIndexes();
+        trimChanges(db);
+        return changed;
+    }
 
-                String trainType = parts[5];
-                String daysOfOperation = expandDays(parts[6]);
-                double firstClassRate = Double.parseDouble(parts[7]);
-                double secondClassRate = Double.parseDouble(parts[8]);
+    /**
+     * Collects the routes updated since lastChangeId and returns the new log position,
+     * or -1 if a full load is needed (a row was deleted, or entries are missing)
+     */
+    private long readChanges(java.sql.Connection db, Set<String> updatedRoutes) throws SQLException {
+        long latest = latestChangeId(db);
+        String sql = "SELECT change_id, route_id, change_type FROM connection_changes"
+                + " WHERE change_id > ? AND change_id <= ? ORDER BY change_id";
+        long expected = lastChangeId + 1;
+        try (PreparedStatement pstmt = db.prepareStatement(sql)) {
+            pstmt.setLong(1, lastChangeId);
+            pstmt.setLong(2, latest);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                // IDs come from AUTOINCREMENT, so a gap means entries were trimmed before we read them
+                if (rs.getLong(1) != expected++) return -1;
+                if (!"UPDATE".equals(rs.getString(3))) return -1;
+                updatedRoutes.add(rs.getString(2));
+            }
+        }
+        return expected == latest + 1 ? latest : -1;
+    }
 
-                // Create parameter object
-                Parameters parameters = new Parameters(
-                        departureCity, arrivalCity, departureTime, arrivalTime,
-                        trainType, daysOfOperation, firstClassRate, secondClassRate
-                );
+    // Reads the current contents of the updated routes that are already in the table
+    private void readUpdatedRows(java.sql.Connection db, Set<String> updatedRoutes,
+                                 ConnectionTable updates, IntList updatedRows) throws SQLException {
+        if (updatedRoutes.isEmpty()) return;
+        Map<String, Integer> rowsByRoute = new HashMap<>();
+        for (int row = 0; row < table.size(); row++) rowsByRoute.put(table.routeId(row), row);
+
+        try (PreparedStatement pstmt = db.prepareStatement(SELECT_CONNECTIONS + " WHERE route_id = ?")) {
+            for (String routeID : updatedRoutes) {
+                Integer row = rowsByRoute.get(routeID);
+                if (row == null) continue; // inserted after the last load; the rowid scan reads it
+                pstmt.setString(1, routeID);
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    addRow(updates, rs);
+                    updatedRows.add(row);
+                }
+            }
+        }
+    }
 
-                // Create connection object 
-                Connection connection = new Connection(routeID, parameters);
-                connections.add(connection);
+    // Streams the rows after the given rowid into target; returns the last rowid read
+    private static long readRowsFromDatabase(java.sql.Connection db, long afterRowId, ConnectionTable target)
+            throws SQLException {
+        String sql = SELECT_CONNECTIONS + " WHERE rowid > ? ORDER BY rowid";
+        long rowId = afterRowId;
+        try (PreparedStatement pstmt = db.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(DB_FETCH_SIZE);
+            pstmt.setLong(1, afterRowId);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                addRow(target, rs);
+                rowId = rs.getLong(1);
             }
+        }
+        return rowId;
+    }
+
+    private static void addRow(ConnectionTable target, ResultSet rs) throws SQLException {
+        target.add(rs.getString(2), rs.getString(3), rs.getString(4),
+                databaseMinutes(rs.getString(5)), databaseMinutes(rs.getString(6)),
+                rs.getString(7), rs.getString(8), rs.getDouble(9), rs.getDouble(10));
+    }
+
+    // Copies a row read into a staging table over the given row of the catalog (appends if row is -1)
+    private void copyRow(ConnectionTable from, int i, int row) {
+        CityDictionary names = from.getCities();
+        String departureCity = names.nameOf(from.departureCity(i));
+        String arrivalCity = names.nameOf(from.arrivalCity(i));
+        if (row < 0) {
+            table.add(from.routeId(i), departureCity, arrivalCity, from.departureMinute(i), from.arrivalMinute(i),
+                    from.trainTypeName(i), from.daysLabel(i), from.firstClassRate(i), from.secondClassRate(i));
+        } else {
+            table.replace(row, from.routeId(i), departureCity, arrivalCity, from.departureMinute(i), from.arrivalMinute(i),
+                    from.trainTypeName(i), from.daysLabel(i), from.firstClassRate(i), from.secondClassRate(i));
+        }
+    }
 
+    /**
+     * Generation ID DatabaseManager stored when the database was created (0 if there is none)
+     */
+    private static long latestGeneration(java.sql.Connection db) throws SQLException {
+        try (PreparedStatement pstmt = db.prepareStatement("SELECT generation_id FROM catalog_generation")) {
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Last ID handed out in the connection_changes log (0 if nothing was ever logged).
+     * Read from the AUTOINCREMENT counter, so trimming the log does not move it back.
+     */
+    private static long latestChangeId(java.sql.Connection db) throws SQLException {
+        String sql = "SELECT seq FROM sqlite_sequence WHERE name = 'connection_changes'";
+        try (PreparedStatement pstmt = db.prepareStatement(sql)) {
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    // Deletes the change log entries the catalog has applied; a failure only leaves the log longer
+    private void trimChanges(java.sql.Connection db) {
+        try (PreparedStatement pstmt = db.prepareStatement("DELETE FROM connection_changes WHERE change_id <= ?")) {
+            pstmt.setLong(1, lastChangeId);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error trimming connection changes: " + e.getMessage());
+        }
+    }
+
+    // Parses the "HH:MM:SS" times stored in the database into minutes since midnight
+    private static int databaseMinutes(String time) {
+        int hours = 0;
+        int i = 0;
+        for (; i < time.length() && time.charAt(i) != ':'; i++) hours = hours * 10 + (time.charAt(i) - '0');
+        int minutes = 0;
+        for (i++; i < time.length() && time.charAt(i) != ':'; i++) minutes = minutes * 10 + (time.charAt(i) - '0');
+        return hours * 60 + minutes;
+    }
+
+    /**
+     * Loads the catalog from its binary snapshot when that is up to date with the CSV file;
+     * otherwise parses the CSV and writes a fresh snapshot for the next start (see CatalogSnapshot)
+     */
+    public void loadWithSnapshot(String csvPath, String snapshotPath) {
+        if (CatalogSnapshot.read(this, csvPath, snapshotPath)) return;
+
+        loadFromFile(csvPath);
+        CatalogSnapshot.write(this, csvPath, snapshotPath);
+    }
+
+    /**
+     * Loads the catalog from its binary snapshot when that was written from the database in
+     * its current state (same generation ID, last rowid and change log position); otherwise loads from the
+     * database and writes a fresh snapshot. Returns the number of rows, or -1 if the database
+     * could not be read.
+     */
+    public int loadFromDatabaseWithSnapshot(java.sql.Connection db, String snapshotPath) {
+        long generation;
+        long rowId;
+        long changeId;
+        try {
+            generation = latestGeneration(db);
+            changeId = latestChangeId(db);
+            rowId = latestRowId(db);
+        } catch (SQLException e) {
+            System.err.println("Error reading database state: " + e.getMessage());
+            return loadFromDatabase(db);
+        }
+
+        if (CatalogSnapshot.readForDatabase(this, generation, rowId, changeId, snapshotPath)) {
+            lastGeneration = generation;
+            lastRowId = rowId;
+            lastChangeId = changeId;
+            trimChanges(db);
+            return table.size();
+        }
+
+        int loaded = loadFromDatabase(db);
+        if (loaded >= 0) CatalogSnapshot.writeForDatabase(this, lastGeneration, lastRowId, lastChangeId, snapshotPath);
+        return loaded;
+    }
+
+    // Highest rowid in the connections table (0 if empty)
+    private static long latestRowId(java.sql.Connection db) throws SQLException {
+        try (PreparedStatement pstmt = db.prepareStatement("SELECT COALESCE(MAX(rowid), 0) FROM connections")) {
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Same result as loadFromFile, for large timetable exports: the file is memory-mapped,
+     * split into line-aligned chunks that are parsed on all cores (see ParallelCsvLoader),
+     * and the chunks are appended in file order. Returns the rows, chunks and time taken.
+     */
+    public LoadReport loadFromFileParallel(String filePath) {
+        long start = System.nanoTime();
+        table.clear();
+        cities.clear();
+        lastRowId = -1;
+
+        List<ParallelCsvLoader.Chunk> chunks;
+        try {
+            chunks = ParallelCsvLoader.parse(filePath);
         } catch (IOException e) {
             System.err.println("Error loading connections: " + e.getMessage());
+            chunks = new ArrayList<>();
+        }
+
+        // Merge on one thread in file order so city IDs and row order match a sequential load;
+        // the workers already coded the text columns, so only their dictionaries are translated here
+        for (ParallelCsvLoader.Chunk chunk : chunks) {
+            table.append(chunk.size, chunk.routeIds, chunk.cities, chunk.departureCities, chunk.arrivalCities,
+                    chunk.departureMinutes, chunk.arrivalMinutes, chunk.trainTypeNames, chunk.trainTypes,
+                    chunk.daysLabelNames, chunk.daysLabels, chunk.dayMasks, chunk.firstClassRates, chunk.secondClassRates);
         }
+        buildIndexes();
+
+        return new LoadReport(table.size(), chunks.size(), System.nanoTime() - start);
     }
 
-     private boolean isLayoverValid(Time arrivalTime, Time nextDepartureTime) {
-        java.time.LocalTime arr = arrivalTime.toLocalTime();
-        java.time.LocalTime dep = nextDepartureTime.toLocalTime();
-        long minutes = java.time.Duration.between(arr, dep).toMinutes();
-        
+    // Converts a java.sql.Time to seconds since midnight
+    static int secondOfDay(Time time) {
+        return time.toLocalTime().toSecondOfDay();
+    }
+
+    // Converts a sum of travel minutes into the Trip total time (wraps at 24h like calculateTotalTime)
+    private static Time totalTime(int minutes) {
+        return ConnectionTable.toTime(minutes % ConnectionTable.MINUTES_PER_DAY);
+    }
+
+    // Days the search may start on: the user's days (any of them) or every day when not given
+    static int queryDays(Parameters searchParams) {
+        if (searchParams.getDaysOfOperation() == null) return DayMask.ALL;
+        return DayMask.parse(searchParams.getDaysOfOperation());
+    }
+
+    // Days on which nextRow can be boarded after riding row, given the days row departed on.
+    // Rolls the days forward when the train or the layover crosses midnight.
+    int connectingDays(int row, int departureDays, int nextRow) {
+        int days = table.arrivalDays(row, departureDays);
+        if (table.departureMinute(nextRow) < table.arrivalMinute(row)) {
+            days = DayMask.shift(days, 1);
+        }
+        return days & table.dayMask(nextRow);
+    }
+
+    // Checks the transfer rules: 10-120 min layover by day (06:00-22:00 arrival), 5-30 min at night
+    static boolean isLayoverValid(int arrivalMinute, int nextDepartureMinute) {
+        int minutes = nextDepartureMinute - arrivalMinute;
+
         if (minutes < 0) {
-            minutes += 24 * 60; // handle overnight wrap-around
+            minutes += ConnectionTable.MINUTES_PER_DAY; // handle overnight wrap-around
         }
-        
-        boolean isDaytime = !arr.isBefore(java.time.LocalTime.of(6, 0)) &&
-                            arr.isBefore(java.time.LocalTime.of(22, 0));
-        
-        if (isDaytime) {
-            return minutes >= 10 && minutes <= 120;  
-        } else {
-            return minutes >= 5 && minutes <= 30;   
+
+        return minutes >= minLayoverMinutes(arrivalMinute) && minutes <= maxLayoverMinutes(arrivalMinute);
+    }
+
+    /**
+     * Fingerprint of INDEX_VERSION and of the layover limits for every arrival minute.
+     * Saved indexes record it, so changing the limits makes them stale even if
+     * INDEX_VERSION was not bumped (other changes to isLayoverValid still need a bump).
+     */
+    static long indexRulesChecksum() {
+        long hash = 31L * INDEX_VERSION + MAX_LAYOVER_MINUTES;
+        for (int arrival = 0; arrival < ConnectionTable.MINUTES_PER_DAY; arrival++) {
+            hash = 31 * hash + minLayoverMinutes(arrival);
+            hash = 31 * hash + maxLayoverMinutes(arrival);
         }
+        return hash;
+    }
+
+    private static boolean isDaytime(int arrivalMinute) {
+        return arrivalMinute >= 6 * 60 && arrivalMinute < 22 * 60;
+    }
+
+    // Shortest allowed layover after arriving at the given minute of the day
+    static int minLayoverMinutes(int arrivalMinute) {
+        return isDaytime(arrivalMinute) ? 10 : 5;
+    }
+
+    // Longest allowed layover after arriving at the given minute of the day
+    static int maxLayoverMinutes(int arrivalMinute) {
+        return isDaytime(arrivalMinute) ? MAX_LAYOVER_MINUTES : 30;
     }
 
 
     // Checks if a direct connection exists. Is used searchTrips 
     public boolean directConnectionExists(Parameters searchParams) {
-        for (Connection conn : connections) {
-            Parameters params = conn.getParameters();
-            if (params.getDepartureCity().equalsIgnoreCase(searchParams.getDepartureCity()) &&
-                params.getArrivalCity().equalsIgnoreCase(searchParams.getArrivalCity())) {
+        int origin = cities.idOf(searchParams.getDepartureCity());
+        int destination = cities.idOf(searchParams.getArrivalCity());
+        if (origin == CityDictionary.UNKNOWN || destination == CityDictionary.UNKNOWN) return false;
+
+        for (int row : departuresByCity[origin]) {
+            if (table.arrivalCity(row) == destination) {
                 return true;
             }
         }
@@ -180,150 +740,283 @@ public class ConnectionCatalog {
 
     // Searches for direct connections based on search parameters
     public List<Trip> searchDirect(Parameters searchParams) {
-        List<Trip> result = new ArrayList<>();
+        return toTrips(searchDirect(searchParams,
+                cities.idOf(searchParams.getDepartureCity()),
+                cities.idOf(searchParams.getArrivalCity())));
+    }
 
-        for (Connection conn : connections) {
-            Parameters params = conn.getParameters();
+    // Same as searchDirect(Parameters) with the cities already resolved to IDs.
+    // Returns candidates only; no Trip is built until toTrip is called.
+    public List<TripCandidate> searchDirect(Parameters searchParams, int origin, int destination) {
+        List<TripCandidate> result = new ArrayList<>();
+        if (origin == CityDictionary.UNKNOWN || destination == CityDictionary.UNKNOWN) return result;
+
+        // Resolve the optional filters once, outside the loop
+        SearchFilters filters = SearchFilters.of(searchParams, table);
+        if (filters.matchesNothing()) return result;
+
+        // Only connections leaving the departure city can match; binary search skips
+        // everything that leaves before the requested departure time
+        int[] departures = departuresByCity[origin];
+        int first = firstDepartureAtOrAfter(origin, filters.earliestDepartureMinute());
+        for (int i = first; i < departures.length; i++) {
+            int row = departures[i];
+            if (table.arrivalCity(row) != destination) continue;
+
+            if (!filters.trainTypeMatches(table, row)) continue;
+            if ((table.dayMask(row) & filters.days) == 0) continue;
+            if (!filters.acceptsTrip(table.departureMinute(row), table.durationMinutes(row),
+                    table.firstClassRate(row), table.secondClassRate(row))) continue;
+
+            result.add(candidate(row));
+        }
 
-            if (!params.getDepartureCity().equalsIgnoreCase(searchParams.getDepartureCity())) continue;
-            if (!params.getArrivalCity().equalsIgnoreCase(searchParams.getArrivalCity())) continue;
+        // Departures are scanned by time; list the trips in file (row) order, as unsorted results always were
+        result.sort(Comparator.comparingInt(trip -> trip.getRows()[0]));
+        return result;
+        
+    }
 
-            if (searchParams.getDepartureTime() != null && params.getDepartureTime().before(searchParams.getDepartureTime())) continue;
-            if (searchParams.getArrivalTime() != null && params.getArrivalTime().after(searchParams.getArrivalTime())) continue;
-            if (searchParams.getTrainType() != null && !params.getTrainType().equalsIgnoreCase(searchParams.getTrainType())) continue;
-            if (searchParams.getDaysOfOperation() != null && !params.getDaysOfOperation().contains(searchParams.getDaysOfOperation())) continue;
-            if (searchParams.getFirstClassRate() > 0 && params.getFirstClassRate() > searchParams.getFirstClassRate()) continue;
-            if (searchParams.getSecondClassRate() > 0 && params.getSecondClassRate() > searchParams.getSecondClassRate()) continue;
+    public List<Trip> searchIndirect(Parameters searchParams) {
+        return toTrips(searchIndirect(searchParams,
+                cities.idOf(searchParams.getDepartureCity()),
+                cities.idOf(searchParams.getArrivalCity())));
+    }
 
-            List<Connection> connList = new ArrayList<>();
-            connList.add(conn);
-            Time totalTime = calculateTotalTime(connList);
-            double totalFCRate = calculateTotalFCRate(connList);
-            double totalSCRate = calculateTotalSCRate(connList);
-            Trip trip = new Trip(totalTime, totalFCRate, totalSCRate, connList);
-            result.add(trip);
-        }
+    // Same as searchIndirect(Parameters) with the cities already resolved to IDs.
+    // Returns candidates only; no Trip is built until toTrip is called.
+    public List<TripCandidate> searchIndirect(Parameters searchParams, int origin, int destination) {
+        return searchIndirect(searchParams, origin, destination, null);
+    }
+
+    // Same, but stops early once budget runs out (null = no limit); see SearchBudget
+    public List<TripCandidate> searchIndirect(Parameters searchParams, int origin, int destination, SearchBudget budget) {
+        List<TripCandidate> result = new ArrayList<>();
+        Set<TripCandidate> seen = new HashSet<>(); // itineraries already in result, for O(1) duplicate checks
+        if (origin == CityDictionary.UNKNOWN || destination == CityDictionary.UNKNOWN) return result;
+
+        // Two-hop, then three-hop connections: walk the adjacency index from the origin, checking
+        // layovers, days of operation and the search filters leg by leg (see ItineraryWalker)
+        ItineraryWalker walker = indirectWalker(origin, destination, SearchFilters.of(searchParams, table));
+        walker.setBudget(budget);
+        walker.walk((rows, legs, travelMinutes, elapsedMinutes, fcRate, scRate) -> {
+            TripCandidate trip = new TripCandidate(Arrays.copyOf(rows, legs), travelMinutes, elapsedMinutes, fcRate, scRate);
+
+            // Avoid adding if already present (hash-based duplicate check)
+            if (seen.add(trip)) {
+                result.add(trip);
+            }
+        });
 
         return result;
-        
     }
 
-     public List<Trip> searchIndirect(Parameters searchParams) {
-        List<Trip> result = new ArrayList<>();
-
-        // --- Two-hop connections ---
-        for (Connection conn1 : connections) {
-            String dep1 = conn1.getParameters().getDepartureCity();
-            String arr1 = conn1.getParameters().getArrivalCity();
-
-            if (dep1.equalsIgnoreCase(searchParams.getDepartureCity())) {
-                for (Connection conn2 : connections) {
-                    String dep2 = conn2.getParameters().getDepartureCity();
-                    String arr2 = conn2.getParameters().getArrivalCity();
-
-                    // Check if cities match for valid connection
-                    if (dep2.equalsIgnoreCase(arr1) &&
-                        arr2.equalsIgnoreCase(searchParams.getArrivalCity()) &&
-                        !arr2.equalsIgnoreCase(dep1) &&   // don't go back to start
-                        !dep2.equalsIgnoreCase(dep1)) {   // avoid same city twice
-
-                        // Check if layover time is valid
-                        Time arrivalTime1 = conn1.getParameters().getArrivalTime();
-                        Time departureTime2 = conn2.getParameters().getDepartureTime();
-                        
-                        if (!isLayoverValid(arrivalTime1, departureTime2)) {
-                            continue; // Skip this connection pair if layover is invalid
-                        }
-
-                        // Build valid trip
-                        List<Connection> connList = new ArrayList<>();
-                        connList.add(conn1);
-                        connList.add(conn2);
-
-                        Time totalTime = calculateTotalTime(connList);
-                        double totalFCRate = calculateTotalFCRate(connList);
-                        double totalSCRate = calculateTotalSCRate(connList);
-                        Trip trip = new Trip(totalTime, totalFCRate, totalSCRate, connList);
-
-                        // Avoid adding if already present (basic duplicate check)
-                        if (!result.contains(trip)) {
-                            result.add(trip);
-                        }
+    // Walker for the 2- and 3-leg itineraries between two cities. A partitioned catalog walks only
+    // the query's part of the RegionPartition, which has the same trips in the same order, so no
+    // bounds or walk state are built for every city of a large network on each query.
+    ItineraryWalker indirectWalker(int origin, int destination, SearchFilters filters) {
+        RegionPartition.View view = isPartitioned() ? getRegions().view(origin, destination) : null;
+        return new ItineraryWalker(this, view, origin, destination, filters, 2, MAX_INDIRECT_LEGS);
+    }
+
+    /**
+     * Same results and order as searchIndirect, but the walk reads only the origin's region,
+     * the border-station overlay and the destination's region of the RegionPartition (their
+     * own connections, transfer tables and bounds) instead of the whole catalog. searchIndirect
+     * already does so on partitioned catalogs; this builds the partition on first use on any.
+     */
+    public List<TripCandidate> searchIndirectPartitioned(Parameters searchParams, int origin, int destination) {
+        List<TripCandidate> result = new ArrayList<>();
+        if (origin == CityDictionary.UNKNOWN || destination == CityDictionary.UNKNOWN || origin == destination) return result;
+
+        ItineraryWalker walker = new ItineraryWalker(this, getRegions().view(origin, destination), origin, destination,
+                SearchFilters.of(searchParams, table), 2, MAX_INDIRECT_LEGS);
+        Set<TripCandidate> seen = new HashSet<>();
+        walker.walk((rows, legs, travelMinutes, elapsedMinutes, fcRate, scRate) -> {
+            TripCandidate trip = new TripCandidate(Arrays.copyOf(rows, legs), travelMinutes, elapsedMinutes, fcRate, scRate);
+            if (seen.add(trip)) {
+                result.add(trip);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Same results and order as searchIndirect, but each first leg's subtree of 2- and 3-hop
+     * itineraries is walked as a separate task on the common ForkJoinPool (via a parallel stream).
+     * Every task has its own walker and result buffer; buffers are merged in first-leg order,
+     * once per number of legs, so all 2-hop trips still come before the 3-hop ones.
+     */
+    public List<TripCandidate> searchIndirectParallel(Parameters searchParams, int origin, int destination) {
+        List<TripCandidate> result = new ArrayList<>();
+        if (origin == CityDictionary.UNKNOWN || destination == CityDictionary.UNKNOWN) return result;
+
+        SearchFilters filters = SearchFilters.of(searchParams, table);
+        int[] firstLegs = departuresByCity[origin];
+
+        List<List<TripCandidate>> buffers = IntStream.range(0, firstLegs.length)
+                .parallel()
+                .mapToObj(i -> {
+                    List<TripCandidate> buffer = new ArrayList<>();
+                    ItineraryWalker walker = new ItineraryWalker(this, origin, destination, filters, 2, MAX_INDIRECT_LEGS);
+                    walker.walkFrom(firstLegs[i], (rows, legs, travelMinutes, elapsedMinutes, fcRate, scRate) ->
+                            buffer.add(new TripCandidate(Arrays.copyOf(rows, legs), travelMinutes, elapsedMinutes, fcRate, scRate)));
+                    return buffer;
+                })
+                .collect(Collectors.toList());
+
+        // Ordered merge with the same duplicate check as searchIndirect
+        Set<TripCandidate> seen = new HashSet<>();
+        for (int legs = 2; legs <= MAX_INDIRECT_LEGS; legs++) {
+            for (List<TripCandidate> buffer : buffers) {
+                for (TripCandidate trip : buffer) {
+                    if (trip.getNumberOfConnections() == legs && seen.add(trip)) {
+                        result.add(trip);
                     }
                 }
             }
         }
+        return result;
+    }
 
-        // --- Three-hop connections ---
-        for (Connection conn1 : connections) {
-            String dep1 = conn1.getParameters().getDepartureCity();
-            String arr1 = conn1.getParameters().getArrivalCity();
-
-            if (dep1.equalsIgnoreCase(searchParams.getDepartureCity())) {
-                for (Connection conn2 : connections) {
-                    String dep2 = conn2.getParameters().getDepartureCity();
-                    String arr2 = conn2.getParameters().getArrivalCity();
-
-                    if (dep2.equalsIgnoreCase(arr1) &&
-                        !arr2.equalsIgnoreCase(dep1) &&   // no return to start
-                        !dep2.equalsIgnoreCase(dep1)) {   // avoid same city twice
-                        
-                        // Check first layover
-                        Time arrivalTime1 = conn1.getParameters().getArrivalTime();
-                        Time departureTime2 = conn2.getParameters().getDepartureTime();
-                        
-                        if (!isLayoverValid(arrivalTime1, departureTime2)) {
-                            continue; // Skip if first layover is invalid
-                        }
-                        
-                        for (Connection conn3 : connections) {
-                            String dep3 = conn3.getParameters().getDepartureCity();
-                            String arr3 = conn3.getParameters().getArrivalCity();
-
-                            if (dep3.equalsIgnoreCase(arr2) &&
-                                arr3.equalsIgnoreCase(searchParams.getArrivalCity()) &&
-                                !arr3.equalsIgnoreCase(dep1) &&  // avoid loop back to start
-                                !arr3.equalsIgnoreCase(arr1) &&  // avoid revisiting arr1
-                                !dep3.equalsIgnoreCase(dep1)) {  // avoid same city twice
-
-                                // Check second layover
-                                Time arrivalTime2 = conn2.getParameters().getArrivalTime();
-                                Time departureTime3 = conn3.getParameters().getDepartureTime();
-                                
-                                if (!isLayoverValid(arrivalTime2, departureTime3)) {
-                                    continue; // Skip if second layover is invalid
-                                }
-
-                                List<Connection> connList = new ArrayList<>();
-                                connList.add(conn1);
-                                connList.add(conn2);
-                                connList.add(conn3);
-
-                                Time totalTime = calculateTotalTime(connList);
-                                double totalFCRate = calculateTotalFCRate(connList);
-                                double totalSCRate = calculateTotalSCRate(connList);
-                                Trip trip = new Trip(totalTime, totalFCRate, totalSCRate, connList);
-
-                                if (!result.contains(trip)) {
-                                    result.add(trip);
-                                }
-                            }
-                        }
-                    }
+    /**
+     * Same trips as searchIndirect, found by meeting in the middle: the connections arriving at
+     * the destination are grouped by the city they leave from (one leg backward), then each leg
+     * leaving the origin (one leg forward) is joined either directly onto those groups (2 legs)
+     * or through one transfer whose arrival city has a group (3 legs). Only pairs of legs that
+     * can actually close the route are ever combined.
+     */
+    public List<TripCandidate> searchIndirectBidirectional(Parameters searchParams, int origin, int destination) {
+        List<TripCandidate> result = new ArrayList<>();
+        if (origin == CityDictionary.UNKNOWN || destination == CityDictionary.UNKNOWN || origin == destination) return result;
+
+        SearchFilters filters = SearchFilters.of(searchParams, table);
+        if (filters.matchesNothing()) return result;
+
+        // Backward step: city -> last legs from that city into the destination
+        IntList[] lastLegs = new IntList[cities.size()];
+        for (int row : arrivalsByCity[destination]) {
+            int from = table.departureCity(row);
+            if (from == origin) continue; // direct connections are searchDirect's job
+            if (!filters.trainTypeMatches(table, row)) continue;
+            if (lastLegs[from] == null) lastLegs[from] = new IntList();
+            lastLegs[from].add(row);
+        }
+
+        // Forward step from the origin, joined on the middle city
+        int[] departures = departuresByCity[origin];
+        for (int j = firstDepartureAtOrAfter(origin, filters.earliestDepartureMinute()); j < departures.length; j++) {
+            int row1 = departures[j];
+            int arr1 = table.arrivalCity(row1);
+            if (arr1 == origin || arr1 == destination) continue;
+            if (!filters.departsInTime(table, row1) || !filters.trainTypeMatches(table, row1)) continue;
+            int days1 = filters.days & table.dayMask(row1);
+            if (days1 == 0) continue;
+
+            // --- Two-hop: the first leg ends where a last leg starts ---
+            if (lastLegs[arr1] != null) {
+                for (int i = 0; i < lastLegs[arr1].size(); i++) {
+                    int row2 = lastLegs[arr1].get(i);
+                    if (!isLayoverValid(table.arrivalMinute(row1), table.departureMinute(row2))) continue;
+                    if (connectingDays(row1, days1, row2) == 0) continue;
+                    addIfWithinFilters(result, filters, candidate(row1, row2));
                 }
             }
-        }
 
+            // --- Three-hop: a middle leg links the first leg to a last leg ---
+            for (int t = transfers.start(row1); t < transfers.end(row1); t++) {
+                int row2 = transfers.target(t);
+                int arr2 = table.arrivalCity(row2);
+                if (lastLegs[arr2] == null || arr2 == origin || arr2 == arr1) continue;
+                if (!filters.trainTypeMatches(table, row2)) continue;
+
+                int days2 = connectingDays(row1, days1, row2);
+                if (days2 == 0) continue;
+
+                for (int i = 0; i < lastLegs[arr2].size(); i++) {
+                    int row3 = lastLegs[arr2].get(i);
+                    if (!isLayoverValid(table.arrivalMinute(row2), table.departureMinute(row3))) continue;
+                    if (connectingDays(row2, days2, row3) == 0) continue;
+                    addIfWithinFilters(result, filters, candidate(row1, row2, row3));
+                }
+            }
+        }
         return result;
     }
 
+    // The budget and arrival filters only apply to whole trips here, as nothing is walked leg by leg
+    private void addIfWithinFilters(List<TripCandidate> result, SearchFilters filters, TripCandidate trip) {
+        if (!filters.acceptsTrip(table.departureMinute(trip.getRows()[0]), trip.getElapsedMinutes(),
+                trip.getTotalFCRate(), trip.getTotalSCRate())) return;
+        result.add(trip);
+    }
+
+    /**
+     * A* search mode: the same trips as searchDirect + searchIndirect, least riding time
+     * first, stopping after limit trips (0 = all). Uses the precomputed LowerBounds to
+     * order the search and to skip partial trips that cannot finish within the filters.
+     */
+    public List<TripCandidate> searchAStar(Parameters searchParams, int origin, int destination, int limit) {
+        return new AStarSearch(this, MAX_INDIRECT_LEGS).search(searchParams, origin, destination, limit);
+    }
+
+    // Builds a candidate from table rows, summing the totals straight from the columns
+    TripCandidate candidate(int... rows) {
+        int minutes = 0;
+        int elapsed = 0;
+        double totalFCRate = 0.0;
+        double totalSCRate = 0.0;
+
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            if (i > 0) elapsed += layoverMinutes(rows[i - 1], row);
+            minutes += table.durationMinutes(row);
+            elapsed += table.durationMinutes(row);
+            totalFCRate += table.firstClassRate(row);
+            totalSCRate += table.secondClassRate(row);
+        }
+
+        return new TripCandidate(rows, minutes, elapsed, totalFCRate, totalSCRate);
+    }
+
+    // Minutes spent waiting between arriving on row and leaving on nextRow (wraps past midnight)
+    int layoverMinutes(int row, int nextRow) {
+        int minutes = table.departureMinute(nextRow) - table.arrivalMinute(row);
+        return minutes < 0 ? minutes + ConnectionTable.MINUTES_PER_DAY : minutes;
+    }
+
+    /**
+     * Returns the Trip for a candidate, creating it (and allocating its trip ID) on first call
+     */
+    public Trip toTrip(TripCandidate candidate) {
+        Trip trip = candidate.getTrip();
+        if (trip == null) {
+            List<Connection> connList = new ArrayList<>(candidate.getNumberOfConnections());
+            for (int row : candidate.getRows()) {
+                connList.add(table.connection(row));
+            }
+            trip = new Trip(totalTime(candidate.getTravelMinutes()),
+                    candidate.getTotalFCRate(), candidate.getTotalSCRate(), connList);
+            candidate.setTrip(trip);
+        }
+        return trip;
+    }
+
+    public List<Trip> toTrips(List<TripCandidate> candidates) {
+        List<Trip> trips = new ArrayList<>(candidates.size());
+        for (TripCandidate candidate : candidates) {
+            trips.add(toTrip(candidate));
+        }
+        return trips;
+    }
+
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("=== Connection Catalog ===\n");
-        for (Connection c : connections) {
-            sb.append(c.toString()).append("\n");
+        for (int row = 0; row < table.size(); row++) {
+            sb.append(table.connection(row).toString()).append("\n");
         }
         return sb.toString();
     }
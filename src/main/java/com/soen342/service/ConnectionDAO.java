@@ -5,12 +5,24 @@ import com.soen342.domain.Parameters;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
 
 /**
  * Data Access Object for managing connections in the database
  */
 public class ConnectionDAO {
     
+    // Rows sent to the database per executeBatch call during a bulk import
+    private static final int BATCH_SIZE = 1000;
+
+    // Shared by the single and bulk inserts
+    private static final String INSERT_SQL = """
+            INSERT INTO connections (route_id, departure_city, arrival_city,
+                                     departure_time, arrival_time, train_type,
+                                     days_of_operation, first_class_rate, second_class_rate)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
     private java.sql.Connection connection;
     
     public ConnectionDAO(java.sql.Connection connection) {
@@ -26,14 +38,7 @@ public class ConnectionDAO {
             return; // Already exists, skip
         }
         
-        String sql = """
-            INSERT INTO connections (route_id, departure_city, arrival_city, 
-                                    departure_time, arrival_time, train_type, 
-                                    days_of_operation, first_class_rate, second_class_rate)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
-        """;
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = connection.prepareStatement(INSERT_SQL)) {
             Parameters params = conn.getParameters();
             
             pstmt.setString(1, conn.getRouteID());
@@ -53,6 +58,74 @@ public class ConnectionDAO {
         }
     }
     
+    /**
+     * Bulk import: saves every connection not already in the database in one transaction,
+     * using a single reused statement sent in batches. Existing route IDs are skipped by
+     * the database (ON CONFLICT(route_id) DO NOTHING) rather than checked one by one.
+     * Returns the number of rows inserted, or -1 if the import failed and was rolled back.
+     */
+    public int saveConnections(List<Connection> connections) {
+        String sql = INSERT_SQL + " ON CONFLICT(route_id) DO NOTHING";
+
+        int inserted = 0;
+        try {
+            connection.setAutoCommit(false); // Start transaction
+
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                int pending = 0;
+                for (Connection conn : connections) {
+                    Parameters params = conn.getParameters();
+
+                    pstmt.setString(1, conn.getRouteID());
+                    pstmt.setString(2, params.getDepartureCity());
+                    pstmt.setString(3, params.getArrivalCity());
+                    pstmt.setString(4, params.getDepartureTime().toString());
+                    pstmt.setString(5, params.getArrivalTime().toString());
+                    pstmt.setString(6, params.getTrainType());
+                    pstmt.setString(7, params.getDaysOfOperation());
+                    pstmt.setDouble(8, params.getFirstClassRate());
+                    pstmt.setDouble(9, params.getSecondClassRate());
+                    pstmt.addBatch();
+
+                    if (++pending == BATCH_SIZE) {
+                        inserted += countInserted(pstmt.executeBatch());
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) inserted += countInserted(pstmt.executeBatch());
+            }
+
+            connection.commit(); // Commit transaction
+
+        } catch (SQLException e) {
+            try {
+                connection.rollback(); // Rollback on error
+                System.err.println("Error importing connections, rolled back: " + e.getMessage());
+            } catch (SQLException ex) {
+                System.err.println("Error rolling back: " + ex.getMessage());
+            }
+            return -1;
+        } finally {
+            try {
+                connection.setAutoCommit(true); // Reset to default
+            } catch (SQLException e) {
+                System.err.println("Error resetting auto-commit: " + e.getMessage());
+            }
+        }
+
+        return inserted;
+    }
+
+    // Sums the update counts of a batch (SUCCESS_NO_INFO counts as one row)
+    private static int countInserted(int[] updateCounts) {
+        int total = 0;
+        for (int count : updateCounts) {
+            if (count > 0) total += count;
+            else if (count == Statement.SUCCESS_NO_INFO) total++;
+        }
+        return total;
+    }
+
     /**
      * Checks if a connection already exists in the database
      */
@@ -0,0 +1,150 @@
+package com.soen342.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * Earliest-arrival routing with the Connection Scan Algorithm (CSA).
+ *
+ * The timetable repeats daily, so the scan walks the departure-sorted rows once per day
+ * of the search horizon, in increasing absolute time (minutes since midnight of the start
+ * day). Each boarded connection becomes a label; a connection can be boarded from the
+ * origin on the start day or from any label waiting at its departure city that passes
+ * the catalog's layover rules. Any number of legs up to maxTransfers + 1 is supported.
+ *
+ * The search filters are applied like in the other search modes (see SearchFilters):
+ * legs of another train type are never boarded, and a journey must arrive by the latest
+ * arrival time (counted from midnight of the start day) and stay within the rate ceilings.
+ */
+public class ConnectionScanRouter {
+
+    public static final int DEFAULT_MAX_TRANSFERS = 2;
+
+    private ConnectionCatalog catalog;
+    private ConnectionTable table;
+
+    public ConnectionScanRouter(ConnectionCatalog catalog) {
+        this.catalog = catalog;
+        this.table = catalog.getTable();
+    }
+
+    /**
+     * Finds the earliest-arriving journey for each day the search may start on
+     * (every day if no day filter is given), using at most maxTransfers changes.
+     * The departure time filter is the earliest time the traveller can leave the origin.
+     *
+     * Each boarded connection keeps a single previous leg, so with a rate ceiling the
+     * journey returned is within the ceiling but may not be the earliest one that is:
+     * a cheaper way to reach the same connection is not kept once a parent is chosen.
+     */
+    public List<TripCandidate> search(Parameters searchParams, int origin, int destination, int maxTransfers) {
+        Set<TripCandidate> result = new LinkedHashSet<>();
+        if (origin == CityDictionary.UNKNOWN || destination == CityDictionary.UNKNOWN || origin == destination) {
+            return new ArrayList<>(result);
+        }
+        SearchFilters filters = SearchFilters.of(searchParams, table);
+        if (filters.matchesNothing()) return new ArrayList<>(result);
+
+        for (int startDay = 0; startDay < 7; startDay++) {
+            if (!DayMask.overlaps(filters.days, DayMask.of(startDay))) continue;
+
+            TripCandidate best = scan(origin, destination, startDay, filters, maxTransfers);
+            if (best != null) result.add(best);
+        }
+        return new ArrayList<>(result);
+    }
+
+    // One CSA pass for a single start weekday; returns null if the destination is unreachable
+    private TripCandidate scan(int origin, int destination, int startDay, SearchFilters filters, int maxTransfers) {
+        int earliestDeparture = filters.earliestDepartureMinute();
+        int maxLegs = maxTransfers + 1;
+        int horizonDays = maxLegs + 1; // each leg is under 24h and each layover at most 2h
+        int[] sorted = catalog.getConnectionsByDeparture();
+
+        JourneyLabels labels = new JourneyLabels();
+        IntList[] waiting = new IntList[catalog.getCityDictionary().size()];
+        int bestArrival = Integer.MAX_VALUE;
+        int bestLabel = -1;
+
+        scan:
+        for (int day = 0; day < horizonDays; day++) {
+            int weekday = DayMask.of((startDay + day) % 7);
+
+            for (int row : sorted) {
+                int departureMinute = table.departureMinute(row);
+                int departure = day * ConnectionTable.MINUTES_PER_DAY + departureMinute;
+                if (departure >= bestArrival) break scan; // nothing later can arrive earlier
+
+                if ((table.dayMask(row) & weekday) == 0 || !filters.trainTypeMatches(table, row)) continue;
+                int from = table.departureCity(row);
+                int to = table.arrivalCity(row);
+                if (to == origin) continue; // never return to the start
+
+                // Arrival in minutes since midnight of the start day, i.e. first departure + elapsed
+                int arrival = departure + table.durationMinutes(row);
+                if (!filters.arrivesInTime(0, arrival)) continue;
+
+                int parent = -1;
+                int legs = 1;
+                if (from == origin) {
+                    if (day != 0 || departureMinute < earliestDeparture) continue;
+                    if (!filters.withinBudget(table.firstClassRate(row), table.secondClassRate(row))) continue;
+                } else {
+                    parent = bestTransfer(labels, waiting[from], departure, row, maxLegs, filters);
+                    if (parent < 0) continue;
+                    legs = labels.legs.get(parent) + 1;
+                }
+
+                int label = labels.add(row, arrival, parent, legs);
+
+                if (to == destination) {
+                    if (arrival < bestArrival) {
+                        bestArrival = arrival;
+                        bestLabel = label;
+                    }
+                } else if (legs < maxLegs) {
+                    if (waiting[to] == null) waiting[to] = new IntList();
+                    waiting[to].add(label);
+                }
+            }
+        }
+
+        if (bestLabel < 0) return null;
+        return catalog.candidate(labels.rowsOf(bestLabel));
+    }
+
+    // Picks the waiting label with the fewest legs that can transfer onto row: the layover must
+    // be valid, the journey must not have been in row's arrival city yet, and its fare plus row's
+    // must stay within the rate ceilings. Drops labels that arrived too long ago to catch
+    // anything from now on.
+    private int bestTransfer(JourneyLabels labels, IntList waitingHere, int departure, int row,
+                             int maxLegs, SearchFilters filters) {
+        if (waitingHere == null) return -1;
+
+        int to = table.arrivalCity(row);
+        int best = -1;
+        int kept = 0;
+        for (int i = 0; i < waitingHere.size(); i++) {
+            int label = waitingHere.get(i);
+            int gap = departure - labels.arrival.get(label);
+            if (gap > ConnectionCatalog.MAX_LAYOVER_MINUTES) continue; // expired: departures only get later
+
+            waitingHere.set(kept++, label);
+            if (gap <= 0 || labels.legs.get(label) >= maxLegs) continue;
+            if (best >= 0 && labels.legs.get(label) >= labels.legs.get(best)) continue;
+            if (!ConnectionCatalog.isLayoverValid(labels.arrival.get(label) % ConnectionTable.MINUTES_PER_DAY,
+                    table.departureMinute(row))) continue;
+            if (labels.visits(table, label, to)) continue;
+            if (filters.limitsRates() && !filters.withinBudget(
+                    labels.rate(table, label, true) + table.firstClassRate(row),
+                    labels.rate(table, label, false) + table.secondClassRate(row))) continue;
+            best = label;
+        }
+        waitingHere.truncate(kept);
+        return best;
+    }
+}
@@ -0,0 +1,357 @@
+package com.soen342.service;
+
+import java.sql.Time;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.soen342.domain.Connection;
+import com.soen342.domain.Parameters;
+
+/**
+ * Columnar (struct-of-arrays) storage for the rail connections.
+ * Row i of every array describes the same connection; the search works on these
+ * primitive columns and only builds Connection objects for the rows it returns.
+ */
+public class ConnectionTable {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private CityDictionary cities;
+    private int size;
+
+    private String[] routeIds;
+    private int[] departureCity;
+    private int[] arrivalCity;
+    private int[] departureMinute;   // minutes since midnight
+    private int[] arrivalMinute;     // minutes since midnight (may be earlier than departure for overnight trains)
+    private short[] trainType;       // code into trainTypeNames
+    private short[] daysLabel;       // code into daysLabels (text shown to users / stored in the DB)
+    private byte[] dayMask;          // DayMask bits
+    private double[] firstClassRate;
+    private double[] secondClassRate;
+
+    // Small dictionaries for the low-cardinality text columns
+    private List<String> trainTypeNames;
+    private Map<String, Short> trainTypeCodes;
+    private List<String> daysLabels;
+    private Map<String, Short> daysLabelCodes;
+
+    // Connection objects built so far, so a row always maps to the same instance
+    private Connection[] materialized;
+
+    public ConnectionTable(CityDictionary cities) {
+        this.cities = cities;
+        this.trainTypeNames = new ArrayList<>();
+        this.trainTypeCodes = new HashMap<>();
+        this.daysLabels = new ArrayList<>();
+        this.daysLabelCodes = new HashMap<>();
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        routeIds = new String[capacity];
+        departureCity = new int[capacity];
+        arrivalCity = new int[capacity];
+        departureMinute = new int[capacity];
+        arrivalMinute = new int[capacity];
+        trainType = new short[capacity];
+        daysLabel = new short[capacity];
+        dayMask = new byte[capacity];
+        firstClassRate = new double[capacity];
+        secondClassRate = new double[capacity];
+        materialized = new Connection[capacity];
+    }
+
+    private void grow() {
+        int capacity = Math.max(routeIds.length * 2, INITIAL_CAPACITY);
+        routeIds = Arrays.copyOf(routeIds, capacity);
+        departureCity = Arrays.copyOf(departureCity, capacity);
+        arrivalCity = Arrays.copyOf(arrivalCity, capacity);
+        departureMinute = Arrays.copyOf(departureMinute, capacity);
+        arrivalMinute = Arrays.copyOf(arrivalMinute, capacity);
+        trainType = Arrays.copyOf(trainType, capacity);
+        daysLabel = Arrays.copyOf(daysLabel, capacity);
+        dayMask = Arrays.copyOf(dayMask, capacity);
+        firstClassRate = Arrays.copyOf(firstClassRate, capacity);
+        secondClassRate = Arrays.copyOf(secondClassRate, capacity);
+        materialized = Arrays.copyOf(materialized, capacity);
+    }
+
+    /**
+     * Removes every row and resets the text dictionaries (the city dictionary is owned by the caller)
+     */
+    public void clear() {
+        size = 0;
+        trainTypeNames.clear();
+        trainTypeCodes.clear();
+        daysLabels.clear();
+        daysLabelCodes.clear();
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Appends one connection and returns its row index
+     */
+    public int add(String routeID, String departureCityName, String arrivalCityName,
+                   int departureMin, int arrivalMin, String trainTypeName, String days,
+                   double fcRate, double scRate) {
+        if (size == routeIds.length) grow();
+
+        int row = size++;
+        routeIds[row] = routeID;
+        departureCity[row] = cities.intern(departureCityName);
+        arrivalCity[row] = cities.intern(arrivalCityName);
+        departureMinute[row] = departureMin;
+        arrivalMinute[row] = arrivalMin;
+        trainType[row] = code(trainTypeNames, trainTypeCodes, trainTypeName, trainTypeName.toLowerCase(Locale.ROOT));
+        daysLabel[row] = code(daysLabels, daysLabelCodes, days, days);
+        dayMask[row] = (byte) DayMask.parse(days);
+        firstClassRate[row] = fcRate;
+        secondClassRate[row] = scRate;
+        return row;
+    }
+
+    /**
+     * Appends count rows coded against other dictionaries (see ParallelCsvLoader.Chunk): city IDs
+     * into rowCities, train type codes into rowTrainTypes and days label codes into rowDaysLabels.
+     * Only those dictionaries are translated; the columns are copied as they are.
+     */
+    void append(int count, String[] routeIds, CityDictionary rowCities, int[] departureCities, int[] arrivalCities,
+                int[] departureMinutes, int[] arrivalMinutes, List<String> rowTrainTypes, short[] trainTypes,
+                List<String> rowDaysLabels, short[] daysLabels, byte[] dayMasks,
+                double[] firstClassRates, double[] secondClassRates) {
+        while (this.routeIds.length < size + count) grow();
+
+        // Translated in order of first appearance, so new values get the codes a row-by-row add would give them
+        int[] cityIds = new int[rowCities.size()];
+        for (int id = 0; id < cityIds.length; id++) cityIds[id] = cities.intern(rowCities.nameOf(id));
+        short[] trainTypeCodes = new short[rowTrainTypes.size()];
+        for (int c = 0; c < trainTypeCodes.length; c++) {
+            String name = rowTrainTypes.get(c);
+            trainTypeCodes[c] = code(trainTypeNames, this.trainTypeCodes, name, name.toLowerCase(Locale.ROOT));
+        }
+        short[] daysLabelCodes = new short[rowDaysLabels.size()];
+        for (int c = 0; c < daysLabelCodes.length; c++) {
+            daysLabelCodes[c] = code(this.daysLabels, this.daysLabelCodes, rowDaysLabels.get(c), rowDaysLabels.get(c));
+        }
+
+        for (int i = 0; i < count; i++) {
+            int row = size + i;
+            departureCity[row] = cityIds[departureCities[i]];
+            arrivalCity[row] = cityIds[arrivalCities[i]];
+            trainType[row] = trainTypeCodes[trainTypes[i]];
+            daysLabel[row] = daysLabelCodes[daysLabels[i]];
+        }
+        System.arraycopy(routeIds, 0, this.routeIds, size, count);
+        System.arraycopy(departureMinutes, 0, departureMinute, size, count);
+        System.arraycopy(arrivalMinutes, 0, arrivalMinute, size, count);
+        System.arraycopy(dayMasks, 0, dayMask, size, count);
+        System.arraycopy(firstClassRates, 0, firstClassRate, size, count);
+        System.arraycopy(secondClassRates, 0, secondClassRate, size, count);
+        size += count;
+    }
+
+    /**
+     * Overwrites one row in place (its Connection object is rebuilt on next use)
+     */
+    public void replace(int row, String routeID, String departureCityName, String arrivalCityName,
+                        int departureMin, int arrivalMin, String trainTypeName, String days,
+                        double fcRate, double scRate) {
+        routeIds[row] = routeID;
+        departureCity[row] = cities.intern(departureCityName);
+        arrivalCity[row] = cities.intern(arrivalCityName);
+        departureMinute[row] = departureMin;
+        arrivalMinute[row] = arrivalMin;
+        trainType[row] = code(trainTypeNames, trainTypeCodes, trainTypeName, trainTypeName.toLowerCase(Locale.ROOT));
+        daysLabel[row] = code(daysLabels, daysLabelCodes, days, days);
+        dayMask[row] = (byte) DayMask.parse(days);
+        firstClassRate[row] = fcRate;
+        secondClassRate[row] = scRate;
+        materialized[row] = null;
+    }
+
+    /**
+     * Replaces the contents with columns read back from a snapshot (see CatalogSnapshot).
+     * City IDs must refer to the shared city dictionary.
+     */
+    void restore(int size, String[] routeIds, int[] departureCity, int[] arrivalCity,
+                 int[] departureMinute, int[] arrivalMinute, short[] trainType, short[] daysLabel,
+                 byte[] dayMask, double[] firstClassRate, double[] secondClassRate,
+                 List<String> trainTypeNames, List<String> daysLabels) {
+        clear();
+        this.size = size;
+        this.routeIds = routeIds;
+        this.departureCity = departureCity;
+        this.arrivalCity = arrivalCity;
+        this.departureMinute = departureMinute;
+        this.arrivalMinute = arrivalMinute;
+        this.trainType = trainType;
+        this.daysLabel = daysLabel;
+        this.dayMask = dayMask;
+        this.firstClassRate = firstClassRate;
+        this.secondClassRate = secondClassRate;
+        this.materialized = new Connection[Math.max(size, 1)];
+        for (String name : trainTypeNames) code(this.trainTypeNames, trainTypeCodes, name, name.toLowerCase(Locale.ROOT));
+        for (String label : daysLabels) code(this.daysLabels, daysLabelCodes, label, label);
+    }
+
+    List<String> getTrainTypeNames() {
+        return trainTypeNames;
+    }
+
+    List<String> getDaysLabels() {
+        return daysLabels;
+    }
+
+    // Returns the dictionary code of a value, adding it on first use
+    static short code(List<String> values, Map<String, Short> codes, String value, String key) {
+        Short code = codes.get(key);
+        if (code == null) {
+            if (values.size() > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct values: " + value);
+            }
+            code = (short) values.size();
+            codes.put(key, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public CityDictionary getCities() {
+        return cities;
+    }
+
+    public String routeId(int row) {
+        return routeIds[row];
+    }
+
+    public int departureCity(int row) {
+        return departureCity[row];
+    }
+
+    public int arrivalCity(int row) {
+        return arrivalCity[row];
+    }
+
+    public int departureMinute(int row) {
+        return departureMinute[row];
+    }
+
+    public int arrivalMinute(int row) {
+        return arrivalMinute[row];
+    }
+
+    /**
+     * Travel time in minutes, handling trains that arrive after midnight
+     */
+    public int durationMinutes(int row) {
+        int minutes = arrivalMinute[row] - departureMinute[row];
+        return minutes < 0 ? minutes + MINUTES_PER_DAY : minutes;
+    }
+
+    /**
+     * True if the train arrives on the day after it departs
+     */
+    public boolean arrivesNextDay(int row) {
+        return arrivalMinute[row] < departureMinute[row];
+    }
+
+    /**
+     * Given the days a row departs on, returns the days it arrives on
+     */
+    public int arrivalDays(int row, int departureDays) {
+        return arrivesNextDay(row) ? DayMask.shift(departureDays, 1) : departureDays;
+    }
+
+    public short trainType(int row) {
+        return trainType[row];
+    }
+
+    public String trainTypeName(int row) {
+        return trainTypeNames.get(trainType[row]);
+    }
+
+    /**
+     * Looks up the code of a train type (case-insensitive), or -1 if no connection uses it
+     */
+    public int trainTypeCode(String name) {
+        Short code = trainTypeCodes.get(name.trim().toLowerCase(Locale.ROOT));
+        return code == null ? -1 : code;
+    }
+
+    public String daysLabel(int row) {
+        return daysLabels.get(daysLabel[row]);
+    }
+
+    short daysLabelCode(int row) {
+        return daysLabel[row];
+    }
+
+    public int dayMask(int row) {
+        return dayMask[row];
+    }
+
+    public double firstClassRate(int row) {
+        return firstClassRate[row];
+    }
+
+    public double secondClassRate(int row) {
+        return secondClassRate[row];
+    }
+
+    /**
+     * Hash of every row's contents, in row order. Data derived from the table and saved
+     * to disk records it, so a copy built from different connections can be recognized.
+     */
+    public long checksum() {
+        long hash = 17;
+        for (int row = 0; row < size; row++) {
+            hash = 31 * hash + routeIds[row].hashCode();
+            hash = 31 * hash + cities.nameOf(departureCity[row]).hashCode();
+            hash = 31 * hash + cities.nameOf(arrivalCity[row]).hashCode();
+            hash = 31 * hash + departureMinute[row];
+            hash = 31 * hash + arrivalMinute[row];
+            hash = 31 * hash + trainTypeName(row).hashCode();
+            hash = 31 * hash + dayMask[row];
+            hash = 31 * hash + Double.hashCode(firstClassRate[row]);
+            hash = 31 * hash + Double.hashCode(secondClassRate[row]);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the Connection object for a row, building it on first use
+     */
+    public Connection connection(int row) {
+        Connection conn = materialized[row];
+        if (conn == null) {
+            Parameters parameters = new Parameters(
+                    cities.nameOf(departureCity[row]), cities.nameOf(arrivalCity[row]),
+                    toTime(departureMinute[row]), toTime(arrivalMinute[row]),
+                    trainTypeName(row), daysLabel(row),
+                    firstClassRate[row], secondClassRate[row]
+            );
+            conn = new Connection(routeIds[row], parameters);
+            materialized[row] = conn;
+        }
+        return conn;
+    }
+
+    /**
+     * Converts minutes since midnight to a java.sql.Time
+     */
+    public static Time toTime(int minuteOfDay) {
+        return Time.valueOf(LocalTime.of(minuteOfDay / 60, minuteOfDay % 60));
+    }
+}
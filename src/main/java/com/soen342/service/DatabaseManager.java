@@ -31,6 +31,8 @@ public class DatabaseManager {
      */
     public void initializeTables() {
         createConnectionsTable();
+        createConnectionChangesTable();
+        createCatalogGenerationTable();
         createTripsTable();
         createClientsTable();
         createBookingsTable();
@@ -61,6 +63,60 @@ public class DatabaseManager {
         executeSQL(sql, "Connections table");
     }
     
+    /**
+     * Creates the Connection changes log
+     * Triggers record every update or delete on connections, so an in-memory catalog
+     * can reload only what changed (new rows are found by rowid)
+     */
+    private void createConnectionChangesTable() {
+        String sql = """
+            CREATE TABLE IF NOT EXISTS connection_changes (
+                change_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                route_id TEXT NOT NULL,
+                change_type TEXT NOT NULL
+            )
+        """;
+        executeSQL(sql, "Connection changes table");
+
+        // A changed route ID counts as a delete: the old row is gone
+        String updateTrigger = """
+            CREATE TRIGGER IF NOT EXISTS connections_updated AFTER UPDATE ON connections
+            BEGIN
+                INSERT INTO connection_changes (route_id, change_type)
+                VALUES (OLD.route_id, CASE WHEN OLD.route_id = NEW.route_id THEN 'UPDATE' ELSE 'DELETE' END);
+            END
+        """;
+        executeSQL(updateTrigger, "Connection update trigger");
+
+        String deleteTrigger = """
+            CREATE TRIGGER IF NOT EXISTS connections_deleted AFTER DELETE ON connections
+            BEGIN
+                INSERT INTO connection_changes (route_id, change_type) VALUES (OLD.route_id, 'DELETE');
+            END
+        """;
+        executeSQL(deleteTrigger, "Connection delete trigger");
+    }
+
+    /**
+     * Creates the Catalog generation table
+     * Holds one random ID picked when the database is created, so a catalog snapshot or
+     * reload position taken from a deleted and recreated database is not mistaken for it
+     */
+    private void createCatalogGenerationTable() {
+        String sql = """
+            CREATE TABLE IF NOT EXISTS catalog_generation (
+                generation_id INTEGER NOT NULL
+            )
+        """;
+        executeSQL(sql, "Catalog generation table");
+
+        String seed = """
+            INSERT INTO catalog_generation (generation_id)
+            SELECT random() WHERE NOT EXISTS (SELECT 1 FROM catalog_generation)
+        """;
+        executeSQL(seed, "Catalog generation ID");
+    }
+
     /**
      * Creates the Trips table
      * Stores trip information with references to connections
@@ -173,7 +229,7 @@ public class DatabaseManager {
      * Drops all tables (useful for reset/testing)
      */
     public void dropAllTables() {
-        String[] tables = {"tickets", "reservations", "bookings", "clients", "trips", "connections"};
+        String[] tables = {"tickets", "reservations", "bookings", "clients", "trips", "connection_changes", "catalog_generation", "connections"};
         
         try (Statement stmt = connection.createStatement()) {
             for (String table : tables) {
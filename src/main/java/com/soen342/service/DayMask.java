@@ -0,0 +1,97 @@
+package com.soen342.service;
+
+import java.util.List;
+
+/**
+ * Encodes days of operation as a 7-bit mask: bit 0 = Mon, bit 1 = Tue, ..., bit 6 = Sun
+ */
+public final class DayMask {
+
+    public static final int NONE = 0;
+    public static final int ALL = 0x7F;
+
+    private static final List<String> DAYS = List.of("Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun");
+
+    private DayMask() {
+    }
+
+    /**
+     * Parses a days-of-operation value from the CSV or from user input
+     * Accepts "Daily", ranges ("Fri-Sun", wrapping around Sunday) and lists ("Mon,Wed,Fri")
+     * Unrecognized day names are ignored
+     */
+    public static int parse(String daysStr) {
+        if (daysStr == null) return NONE;
+        daysStr = daysStr.replace("\"", "").trim();
+        if (daysStr.equalsIgnoreCase("Daily")) return ALL;
+
+        int mask = NONE;
+        for (String part : daysStr.split(",")) {
+            part = part.trim();
+            int dash = part.indexOf('-');
+            if (dash < 0) {
+                int day = indexOf(part);
+                if (day >= 0) mask |= 1 << day;
+                continue;
+            }
+
+            int start = indexOf(part.substring(0, dash).trim());
+            int end = indexOf(part.substring(dash + 1).trim());
+            if (start < 0 || end < 0) continue;
+
+            int i = start;
+            while (true) {
+                mask |= 1 << i;
+                if (i == end) break;
+                i = (i + 1) % DAYS.size();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the index (0 = Mon) of a three-letter day name, or -1 if it is not one
+     */
+    public static int indexOf(String day) {
+        for (int i = 0; i < DAYS.size(); i++) {
+            if (DAYS.get(i).equalsIgnoreCase(day)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * True if the two masks share at least one day
+     */
+    public static boolean overlaps(int mask, int other) {
+        return (mask & other) != 0;
+    }
+
+    /**
+     * Returns the mask with only the given day (0 = Mon) set
+     */
+    public static int of(int dayIndex) {
+        return 1 << dayIndex;
+    }
+
+    /**
+     * Moves every day in the mask forward by the given number of days (Sun rolls over to Mon)
+     */
+    public static int shift(int mask, int days) {
+        days = ((days % 7) + 7) % 7;
+        return ((mask << days) | (mask >>> (7 - days))) & ALL;
+    }
+
+    /**
+     * Formats a mask as a comma-separated list of day names ("Daily" when every day is set)
+     */
+    public static String toString(int mask) {
+        if (mask == ALL) return "Daily";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < DAYS.size(); i++) {
+            if ((mask & (1 << i)) == 0) continue;
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(DAYS.get(i));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.soen342.service;
+
+import java.util.Arrays;
+
+/**
+ * The lower bounds from every city to one destination: least riding time, lowest fares
+ * and fewest legs (see LowerBounds). Searches toward a fixed destination read these
+ * instead of a whole city-by-city matrix, so they work the same whether the bounds come
+ * from the dense LowerBounds or from the RegionPartition.
+ *
+ * Each city's bounds are kept in a slot (see slotOf). By default every city has its own;
+ * bounds for one query of the RegionPartition keep slots only for the cities it can reach.
+ */
+public class DestinationBounds {
+
+    private int destination;
+    private int[] minMinutes;      // by slot; UNREACHABLE if no path
+    private double[] minFCRate;    // +infinity if no path
+    private double[] minSCRate;
+    private int[] minLegs;         // UNREACHABLE if no path
+
+    // Every slot starts out unreachable
+    DestinationBounds(int destination, int slotCount) {
+        this.destination = destination;
+        this.minMinutes = new int[slotCount];
+        this.minFCRate = new double[slotCount];
+        this.minSCRate = new double[slotCount];
+        this.minLegs = new int[slotCount];
+        Arrays.fill(minMinutes, LowerBounds.UNREACHABLE);
+        Arrays.fill(minFCRate, Double.POSITIVE_INFINITY);
+        Arrays.fill(minSCRate, Double.POSITIVE_INFINITY);
+        Arrays.fill(minLegs, LowerBounds.UNREACHABLE);
+    }
+
+    // Slot holding the city's bounds, -1 if these bounds leave the city out (it is then unreachable).
+    // Bounds worked out on demand are stored in the slot before it is returned.
+    int slotOf(int city) {
+        return city;
+    }
+
+    void set(int slot, int minutes, double fcRate, double scRate, int legs) {
+        minMinutes[slot] = minutes;
+        minFCRate[slot] = fcRate;
+        minSCRate[slot] = scRate;
+        minLegs[slot] = legs;
+    }
+
+    public int getDestination() {
+        return destination;
+    }
+
+    // Least total riding time from city to the destination, or UNREACHABLE
+    public int minMinutes(int city) {
+        int slot = slotOf(city);
+        return slot < 0 ? LowerBounds.UNREACHABLE : minMinutes[slot];
+    }
+
+    // Lowest total first-class fare, or +infinity if unreachable
+    public double minFCRate(int city) {
+        int slot = slotOf(city);
+        return slot < 0 ? Double.POSITIVE_INFINITY : minFCRate[slot];
+    }
+
+    // Lowest total second-class fare, or +infinity if unreachable
+    public double minSCRate(int city) {
+        int slot = slotOf(city);
+        return slot < 0 ? Double.POSITIVE_INFINITY : minSCRate[slot];
+    }
+
+    // Fewest legs needed, or UNREACHABLE
+    public int minLegs(int city) {
+        int slot = slotOf(city);
+        return slot < 0 ? LowerBounds.UNREACHABLE : minLegs[slot];
+    }
+
+    // True if some chain of at most maxLegs connections leads from city to the destination
+    public boolean isReachable(int city, int maxLegs) {
+        return minLegs(city) <= maxLegs;
+    }
+}
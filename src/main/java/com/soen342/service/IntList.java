@@ -0,0 +1,54 @@
+package com.soen342.service;
+
+import java.util.Arrays;
+
+/**
+ * Minimal growable list of primitive ints, used by the routers to avoid boxing
+ */
+class IntList {
+
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(8);
+    }
+
+    IntList(int capacity) {
+        this.values = new int[Math.max(capacity, 1)];
+    }
+
+    void add(int value) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    void set(int index, int value) {
+        values[index] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    // Drops everything from index on
+    void truncate(int newSize) {
+        size = newSize;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,205 @@
+package com.soen342.service;
+
+/**
+ * Enumeration of itineraries between two cities over the adjacency index, fewest legs first:
+ * one depth-first pass per number of legs (iterative deepening), so every 2-leg itinerary
+ * is reported before any 3-leg one.
+ *
+ * Follows the catalog's itinerary rules: transfers come from the precomputed TransferTable
+ * (so every layover already passes isLayoverValid), each leg must run on a day the
+ * traveller can actually be there (days roll over past midnight), and no city is visited
+ * twice. The visitor can abandon any partial path.
+ *
+ * The search filters are enforced while walking: a leg of the wrong train type is never taken,
+ * and a partial path is dropped as soon as its fare passes a rate ceiling or its arrival passes
+ * the latest arrival time, since adding legs can only make both worse. The catalog's
+ * lower bounds to the destination (DestinationBounds) also drop partial paths that could
+ * not reach the destination in the legs left, or only by breaking those limits.
+ *
+ * With a RegionPartition.View, the legs come from the view's regions and overlay instead
+ * of the catalog's departures and TransferTable, in the same order, and the bounds from
+ * the view.
+ *
+ * With a SearchBudget, every leg tried counts as one expansion and the walk stops where it
+ * is once the budget runs out. Passes with fewer legs run first, so what is kept is every
+ * itinerary of the completed passes plus part of the one that was cut short.
+ *
+ * Instances hold per-walk state and are not thread-safe.
+ */
+class ItineraryWalker {
+
+    /**
+     * Receives complete itineraries and decides which partial ones are worth extending
+     */
+    interface Visitor {
+        // rows[0 .. legs) is only valid during the call; copy it to keep it
+        void accept(int[] rows, int legs, int travelMinutes, int elapsedMinutes, double fcRate, double scRate);
+
+        // Called before a partial path (which has not reached the destination) is extended
+        default boolean shouldExtend(int legs, int travelMinutes, int elapsedMinutes, double fcRate, double scRate) {
+            return true;
+        }
+    }
+
+    private ConnectionCatalog catalog;
+    private ConnectionTable table;
+    private TransferTable transfers;
+    private DestinationBounds bounds;
+    private int origin;
+    private int destination;
+    private SearchFilters filters;
+    private int minLegs;
+    private int maxLegs;
+    private SearchBudget budget;     // null = no limit
+    private RegionPartition.View view;  // null = the whole catalog
+    private IntList[] candidates;    // per depth, the legs the view offers
+    private int passLegs;            // number of legs of the itineraries the current pass reports
+
+    private int[] path;
+    private boolean[] visited;       // by city, or by the view's slot of the city
+
+    ItineraryWalker(ConnectionCatalog catalog, int origin, int destination, SearchFilters filters, int minLegs, int maxLegs) {
+        this(catalog, null, origin, destination, filters, minLegs, maxLegs);
+    }
+
+    /**
+     * Walks only the legs of view (one query's part of a RegionPartition, for the same origin
+     * and destination) and prunes with its bounds; null walks the whole catalog. With a view,
+     * nothing per walk is sized to the whole network.
+     */
+    ItineraryWalker(ConnectionCatalog catalog, RegionPartition.View view, int origin, int destination,
+                    SearchFilters filters, int minLegs, int maxLegs) {
+        this.catalog = catalog;
+        this.table = catalog.getTable();
+        this.transfers = catalog.getTransfers();
+        this.view = view;
+        this.origin = origin;
+        this.destination = destination;
+        this.filters = filters;
+        this.minLegs = minLegs;
+        this.maxLegs = maxLegs;
+        this.path = new int[maxLegs];
+        if (view == null) {
+            this.bounds = maxLegs <= ConnectionCatalog.MAX_INDIRECT_LEGS
+                    ? catalog.boundsBetween(origin, destination) : catalog.boundsTo(destination);
+            this.visited = new boolean[catalog.getCityDictionary().size()];
+        } else {
+            this.bounds = view.getBounds();
+            this.visited = new boolean[view.getCityCount()];
+            this.candidates = new IntList[maxLegs];
+            for (int depth = 0; depth < maxLegs; depth++) candidates[depth] = new IntList();
+        }
+    }
+
+    void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Enumerates every itinerary with minLegs..maxLegs legs, all those with fewer legs first
+     */
+    void walk(Visitor visitor) {
+        if (origin == destination || filters.matchesNothing()) return;
+        visited[slotOf(origin)] = true;
+        for (passLegs = minLegs; passLegs <= maxLegs; passLegs++) {
+            extend(0, origin, -1, filters.days, 0, 0, 0.0, 0.0, visitor);
+        }
+        visited[slotOf(origin)] = false;
+    }
+
+    /**
+     * Enumerates only the itineraries whose first leg is firstRow (a row leaving the origin),
+     * fewest legs first. Walks of different first rows are independent and can run on
+     * separate walkers in parallel.
+     */
+    void walkFrom(int firstRow, Visitor visitor) {
+        if (origin == destination || filters.matchesNothing()) return;
+        visited[slotOf(origin)] = true;
+        for (passLegs = minLegs; passLegs <= maxLegs; passLegs++) {
+            step(0, -1, filters.days, 0, 0, 0.0, 0.0, firstRow, visitor);
+        }
+        visited[slotOf(origin)] = false;
+    }
+
+    // Tries every way to continue from city: the origin's departures for the first leg,
+    // afterwards only the precomputed transfers of lastRow
+    private void extend(int depth, int city, int lastRow, int days, int travel, int elapsed,
+                        double fcRate, double scRate, Visitor visitor) {
+        if (budget != null && budget.isExhausted()) return;
+        if (view != null) {
+            IntList rows = candidates[depth];
+            rows.clear();
+            if (lastRow < 0) view.addDepartures(city, filters.earliestDepartureMinute(), rows);
+            else view.addTransfers(lastRow, rows);
+            for (int i = 0; i < rows.size(); i++) {
+                step(depth, lastRow, days, travel, elapsed, fcRate, scRate, rows.get(i), visitor);
+            }
+        } else if (lastRow < 0) {
+            // Departures are sorted by time, so the departure-time filter is a binary search
+            int[] departures = catalog.getDeparturesFrom(city);
+            int first = catalog.firstDepartureAtOrAfter(city, filters.earliestDepartureMinute());
+            for (int i = first; i < departures.length; i++) {
+                step(depth, lastRow, days, travel, elapsed, fcRate, scRate, departures[i], visitor);
+            }
+        } else {
+            for (int i = transfers.start(lastRow); i < transfers.end(lastRow); i++) {
+                step(depth, lastRow, days, travel, elapsed, fcRate, scRate, transfers.target(i), visitor);
+            }
+        }
+    }
+
+    // Takes row as leg number depth + 1, then reports the itinerary or keeps extending it
+    private void step(int depth, int lastRow, int days, int travel, int elapsed,
+                      double fcRate, double scRate, int row, Visitor visitor) {
+        int to = table.arrivalCity(row);
+        // In this pass the destination is reached on the last leg and only there
+        if ((to == destination) != (depth + 1 == passLegs)) return;
+        if (visited[slotOf(to)] || !filters.trainTypeMatches(table, row)) return;
+        if (budget != null && !budget.spend()) return;
+
+        int nextDays;
+        int nextElapsed;
+        if (lastRow < 0) {
+            if (!filters.departsInTime(table, row)) return;
+            nextDays = days & table.dayMask(row);
+            nextElapsed = table.durationMinutes(row);
+        } else {
+            // row comes from the transfer table, so the layover is already known to be valid
+            nextDays = catalog.connectingDays(lastRow, days, row);
+            nextElapsed = elapsed + catalog.layoverMinutes(lastRow, row) + table.durationMinutes(row);
+        }
+        if (nextDays == DayMask.NONE) return;
+
+        int legs = depth + 1;
+        int nextTravel = travel + table.durationMinutes(row);
+        double nextFC = fcRate + table.firstClassRate(row);
+        double nextSC = scRate + table.secondClassRate(row);
+        if (!filters.withinBudget(nextFC, nextSC)) return;
+        int firstDeparture = table.departureMinute(depth == 0 ? row : path[0]);
+        if (!filters.arrivesInTime(firstDeparture, nextElapsed)) return;
+        path[depth] = row;
+
+        if (to == destination) {
+            visitor.accept(path, legs, nextTravel, nextElapsed, nextFC, nextSC);
+            return;
+        }
+        if (!canStillFinish(to, legs, firstDeparture, nextElapsed, nextFC, nextSC)) return;
+        if (!visitor.shouldExtend(legs, nextTravel, nextElapsed, nextFC, nextSC)) return;
+
+        visited[slotOf(to)] = true;
+        extend(legs, to, row, nextDays, nextTravel, nextElapsed, nextFC, nextSC, visitor);
+        visited[slotOf(to)] = false;
+    }
+
+    // Index of city in visited
+    private int slotOf(int city) {
+        return view == null ? city : view.slotOf(city);
+    }
+
+    // Checks a partial path ending in city against the lower bounds for the rest of the way
+    private boolean canStillFinish(int city, int legs, int firstDeparture, int elapsed, double fcRate, double scRate) {
+        if (!bounds.isReachable(city, passLegs - legs)) return false;
+        if (!filters.withinBudget(fcRate + bounds.minFCRate(city), scRate + bounds.minSCRate(city))) return false;
+        return filters.arrivesInTime(firstDeparture, elapsed + bounds.minMinutes(city));
+    }
+}
@@ -0,0 +1,47 @@
+package com.soen342.service;
+
+/**
+ * Parallel arrays describing the connections boarded during one routing query.
+ * Each label is one ridden row plus a pointer to the label of the previous leg.
+ */
+class JourneyLabels {
+
+    IntList row = new IntList(256);
+    IntList arrival = new IntList(256);   // absolute minutes since start-day midnight
+    IntList parent = new IntList(256);    // previous leg's label, -1 for the first leg
+    IntList legs = new IntList(256);
+
+    int add(int r, int arr, int p, int l) {
+        row.add(r);
+        arrival.add(arr);
+        parent.add(p);
+        legs.add(l);
+        return row.size() - 1;
+    }
+
+    // True if the journey ending at label already passed through city
+    boolean visits(ConnectionTable table, int label, int city) {
+        for (int l = label; l >= 0; l = parent.get(l)) {
+            if (table.departureCity(row.get(l)) == city) return true;
+        }
+        return false;
+    }
+
+    // Total fare of the journey ending at label, in first or second class
+    double rate(ConnectionTable table, int label, boolean firstClass) {
+        double total = 0.0;
+        for (int l = label; l >= 0; l = parent.get(l)) {
+            total += firstClass ? table.firstClassRate(row.get(l)) : table.secondClassRate(row.get(l));
+        }
+        return total;
+    }
+
+    // Rows of the journey ending at label, first leg first
+    int[] rowsOf(int label) {
+        int[] rows = new int[legs.get(label)];
+        for (int l = label, i = rows.length - 1; l >= 0; l = parent.get(l), i--) {
+            rows[i] = row.get(l);
+        }
+        return rows;
+    }
+}
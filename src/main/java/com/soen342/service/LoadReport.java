@@ -0,0 +1,34 @@
+package com.soen342.service;
+
+/**
+ * What a bulk load did and how long it took, for the caller to report
+ */
+public class LoadReport {
+
+    private int rows;
+    private int chunks;
+    private long elapsedNanos;
+
+    public LoadReport(int rows, int chunks, long elapsedNanos) {
+        this.rows = rows;
+        this.chunks = chunks;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    // Number of slices the input was split into (1 for a sequential load)
+    public int getChunks() {
+        return chunks;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedNanos / 1e6;
+    }
+
+    public double getRowsPerSecond() {
+        return rows / Math.max(elapsedNanos / 1e9, 1e-9);
+    }
+}
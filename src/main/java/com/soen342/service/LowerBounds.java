@@ -0,0 +1,220 @@
+package com.soen342.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * City-by-city lower bounds, computed once when the catalog is loaded:
+ * the least riding time, the lowest first- and second-class fare, and the
+ * fewest legs needed to get from one city to another.
+ *
+ * Only connection durations and rates are used (no layovers, days or departure
+ * times), so no real itinerary can ever beat these numbers. That makes them safe
+ * to prune with and admissible as A* heuristics.
+ *
+ * The matrix has one entry per pair of cities. On large networks the catalog uses
+ * RegionPartition instead, which keeps one such matrix per region and one between
+ * border stations, and combines them into the same numbers.
+ */
+public class LowerBounds {
+
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private int size;
+    private int[] minMinutes;        // [from * size + to], UNREACHABLE if no path
+    private double[] minFCRate;      // [from * size + to], +infinity if no path
+    private double[] minSCRate;
+    private byte[] minLegs;          // [from * size + to], -1 if no path (capped at Byte.MAX_VALUE)
+
+    private LowerBounds(int size) {
+        this.size = size;
+        this.minMinutes = new int[size * size];
+        this.minFCRate = new double[size * size];
+        this.minSCRate = new double[size * size];
+        this.minLegs = new byte[size * size];
+    }
+
+    // Bounds read back from a snapshot (see CatalogSnapshot)
+    static LowerBounds restore(int size, int[] minMinutes, double[] minFCRate, double[] minSCRate, byte[] minLegs) {
+        LowerBounds bounds = new LowerBounds(0);
+        bounds.size = size;
+        bounds.minMinutes = minMinutes;
+        bounds.minFCRate = minFCRate;
+        bounds.minSCRate = minSCRate;
+        bounds.minLegs = minLegs;
+        return bounds;
+    }
+
+    static LowerBounds build(ConnectionCatalog catalog) {
+        ConnectionTable table = catalog.getTable();
+        Edges edges = new Edges(catalog.getCityDictionary().size());
+        for (int row = 0; row < table.size(); row++) {
+            edges.add(table.departureCity(row), table.arrivalCity(row), table.durationMinutes(row),
+                    table.firstClassRate(row), table.secondClassRate(row), 1);
+        }
+        return build(edges);
+    }
+
+    /**
+     * City graph to compute bounds over: one edge per ordered pair of cities (numbered
+     * 0 .. size - 1), keeping the cheapest of each measure. An edge can stand for several
+     * legs (RegionPartition adds edges across whole regions).
+     */
+    static final class Edges {
+        private int size;
+        private Map<Long, Integer> index = new HashMap<>();
+        private IntList from = new IntList();
+        private IntList to = new IntList();
+        private double[][] weights = new double[4][16];  // minutes, FC rate, SC rate, legs
+
+        Edges(int size) {
+            this.size = size;
+        }
+
+        void add(int fromCity, int toCity, double minutes, double fcRate, double scRate, double legs) {
+            if (fromCity == toCity) return;
+            double[] measures = {minutes, fcRate, scRate, legs};
+            Integer edge = index.get((long) fromCity * size + toCity);
+            if (edge == null) {
+                edge = from.size();
+                index.put((long) fromCity * size + toCity, edge);
+                from.add(fromCity);
+                to.add(toCity);
+                if (edge == weights[0].length) {
+                    for (int m = 0; m < weights.length; m++) weights[m] = Arrays.copyOf(weights[m], edge * 2);
+                }
+                for (int m = 0; m < weights.length; m++) weights[m][edge] = measures[m];
+            } else {
+                for (int m = 0; m < weights.length; m++) weights[m][edge] = Math.min(weights[m][edge], measures[m]);
+            }
+        }
+    }
+
+    static LowerBounds build(Edges graph) {
+        int n = graph.size;
+        LowerBounds bounds = new LowerBounds(n);
+
+        // Edges grouped by origin city (CSR, like TransferTable)
+        int edgeCount = graph.from.size();
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < edgeCount; e++) offsets[graph.from.get(e) + 1]++;
+        for (int c = 0; c < n; c++) offsets[c + 1] += offsets[c];
+        int[] next = Arrays.copyOf(offsets, n);
+        int[] edges = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) edges[next[graph.from.get(e)]++] = e;
+
+        double[] dist = new double[n];
+        boolean[] done = new boolean[n];
+        for (int source = 0; source < n; source++) {
+            int base = source * n;
+
+            shortestPaths(source, n, offsets, edges, graph.to, graph.weights[0], dist, done);
+            for (int c = 0; c < n; c++) {
+                bounds.minMinutes[base + c] = dist[c] == Double.POSITIVE_INFINITY ? UNREACHABLE : (int) dist[c];
+            }
+            shortestPaths(source, n, offsets, edges, graph.to, graph.weights[1], dist, done);
+            System.arraycopy(dist, 0, bounds.minFCRate, base, n);
+            shortestPaths(source, n, offsets, edges, graph.to, graph.weights[2], dist, done);
+            System.arraycopy(dist, 0, bounds.minSCRate, base, n);
+            shortestPaths(source, n, offsets, edges, graph.to, graph.weights[3], dist, done);
+            for (int c = 0; c < n; c++) {
+                bounds.minLegs[base + c] = dist[c] == Double.POSITIVE_INFINITY ? -1 : (byte) Math.min(dist[c], Byte.MAX_VALUE);
+            }
+        }
+        return bounds;
+    }
+
+    // Dijkstra from source over the collapsed city graph
+    private static void shortestPaths(int source, int n, int[] offsets, int[] edges, IntList edgeTo,
+                                      double[] weight, double[] dist, boolean[] done) {
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(done, false);
+        dist[source] = 0;
+        // Entries are {distance, city}; stale ones are skipped when polled
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        queue.add(new double[] {0, source});
+        while (!queue.isEmpty()) {
+            int city = (int) queue.poll()[1];
+            if (done[city]) continue;
+            done[city] = true;
+            for (int i = offsets[city]; i < offsets[city + 1]; i++) {
+                int e = edges[i];
+                int to = edgeTo.get(e);
+                if (dist[city] + weight[e] < dist[to]) {
+                    dist[to] = dist[city] + weight[e];
+                    queue.add(new double[] {dist[to], to});
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    int[] getMinMinutes() {
+        return minMinutes;
+    }
+
+    double[] getMinFCRates() {
+        return minFCRate;
+    }
+
+    double[] getMinSCRates() {
+        return minSCRate;
+    }
+
+    byte[] getMinLegs() {
+        return minLegs;
+    }
+
+    // Least total riding time from one city to another, or UNREACHABLE
+    public int minMinutes(int from, int to) {
+        return minMinutes[from * size + to];
+    }
+
+    // Lowest total first-class fare, or +infinity if unreachable
+    public double minFCRate(int from, int to) {
+        return minFCRate[from * size + to];
+    }
+
+    // Lowest total second-class fare, or +infinity if unreachable
+    public double minSCRate(int from, int to) {
+        return minSCRate[from * size + to];
+    }
+
+    // Fewest legs needed, or UNREACHABLE
+    public int minLegs(int from, int to) {
+        int legs = minLegs[from * size + to];
+        return legs < 0 ? UNREACHABLE : legs;
+    }
+
+    // True if some chain of at most maxLegs connections leads from one city to the other
+    public boolean isReachable(int from, int to, int maxLegs) {
+        int legs = minLegs[from * size + to];
+        return legs >= 0 && legs <= maxLegs;
+    }
+
+    // Measure m (0 minutes, 1 FC rate, 2 SC rate, 3 legs) from one city to another, +infinity if unreachable
+    double measure(int m, int from, int to) {
+        int i = from * size + to;
+        switch (m) {
+            case 0: return minMinutes[i] == UNREACHABLE ? Double.POSITIVE_INFINITY : minMinutes[i];
+            case 1: return minFCRate[i];
+            case 2: return minSCRate[i];
+            default: return minLegs[i] < 0 ? Double.POSITIVE_INFINITY : minLegs[i];
+        }
+    }
+
+    // The bounds from every city to one destination
+    public DestinationBounds toDestination(int destination) {
+        DestinationBounds result = new DestinationBounds(destination, size);
+        for (int city = 0; city < size; city++) {
+            result.set(city, minMinutes(city, destination), minFCRate(city, destination),
+                    minSCRate(city, destination), minLegs(city, destination));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,161 @@
+package com.soen342.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Parses a large rail network CSV on all cores. The file is split into chunks that
+ * start and end on line boundaries. Each chunk is memory-mapped, decoded and tokenized
+ * on its own thread into its own Chunk buffer, which also interns the chunk's text columns
+ * and parses its day masks. The caller then appends the chunks to the catalog in file
+ * order, so the result is the same as a sequential load.
+ *
+ * Chunks are cut at newlines, so quoted fields must not contain line breaks (the rail
+ * CSV never has them).
+ */
+class ParallelCsvLoader {
+
+    // Files smaller than this per chunk are not worth splitting further
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+
+    // Upper limit per chunk: a mapping must stay under 2 GiB and a chunk is decoded into one char[]
+    private static final long MAX_CHUNK_BYTES = 64L << 20;
+
+    /**
+     * The rows of one chunk, column by column. Cities, train types and days labels are coded
+     * against the chunk's own dictionaries (in order of first appearance, like the catalog's),
+     * so merging only has to translate those dictionaries, not every row.
+     */
+    static class Chunk {
+        int size;
+        String[] routeIds = new String[1024];
+        int[] departureCities = new int[1024];   // IDs in cities
+        int[] arrivalCities = new int[1024];
+        int[] departureMinutes = new int[1024];
+        int[] arrivalMinutes = new int[1024];
+        short[] trainTypes = new short[1024];    // codes into trainTypeNames
+        short[] daysLabels = new short[1024];    // codes into daysLabelNames
+        byte[] dayMasks = new byte[1024];
+        double[] firstClassRates = new double[1024];
+        double[] secondClassRates = new double[1024];
+
+        CityDictionary cities = new CityDictionary();
+        List<String> trainTypeNames = new ArrayList<>();
+        List<String> daysLabelNames = new ArrayList<>();
+        private Map<String, Short> trainTypeCodes = new HashMap<>();
+        private Map<String, Short> daysLabelCodes = new HashMap<>();
+        private IntList labelMasks = new IntList();              // DayMask of each days label
+        private Map<String, String> expandedDays = new HashMap<>();
+
+        private void add(RailCsvTokenizer csv) {
+            if (size == routeIds.length) grow();
+            routeIds[size] = csv.text(0);
+            departureCities[size] = cities.intern(csv.text(1));
+            arrivalCities[size] = cities.intern(csv.text(2));
+            departureMinutes[size] = csv.minutes(3);
+            arrivalMinutes[size] = csv.minutes(4);
+            String trainType = csv.text(5);
+            trainTypes[size] = ConnectionTable.code(trainTypeNames, trainTypeCodes, trainType, trainType.toLowerCase(Locale.ROOT));
+            String days = expandedDays.computeIfAbsent(csv.text(6), ConnectionCatalog::expandDays);
+            short label = ConnectionTable.code(daysLabelNames, daysLabelCodes, days, days);
+            if (label == labelMasks.size()) labelMasks.add(DayMask.parse(days));
+            daysLabels[size] = label;
+            dayMasks[size] = (byte) labelMasks.get(label);
+            firstClassRates[size] = csv.decimal(7);
+            secondClassRates[size] = csv.decimal(8);
+            size++;
+        }
+
+        private void grow() {
+            int capacity = routeIds.length * 2;
+            routeIds = Arrays.copyOf(routeIds, capacity);
+            departureCities = Arrays.copyOf(departureCities, capacity);
+            arrivalCities = Arrays.copyOf(arrivalCities, capacity);
+            departureMinutes = Arrays.copyOf(departureMinutes, capacity);
+            arrivalMinutes = Arrays.copyOf(arrivalMinutes, capacity);
+            trainTypes = Arrays.copyOf(trainTypes, capacity);
+            daysLabels = Arrays.copyOf(daysLabels, capacity);
+            dayMasks = Arrays.copyOf(dayMasks, capacity);
+            firstClassRates = Arrays.copyOf(firstClassRates, capacity);
+            secondClassRates = Arrays.copyOf(secondClassRates, capacity);
+        }
+    }
+
+    /**
+     * Parses every data row of the file (the header line is skipped), returning one Chunk per slice in file order
+     */
+    static List<Chunk> parse(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            // A few chunks per core, but never bigger than MAX_CHUNK_BYTES however few cores there are
+            long perCore = Math.min(Runtime.getRuntime().availableProcessors() * 4L, size / MIN_CHUNK_BYTES);
+            int chunkCount = (int) Math.max(Math.max(1, perCore), (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+
+            // Cut points: just after the header, then every size / chunkCount bytes moved up to the next line start
+            long[] bounds = new long[chunkCount + 1];
+            bounds[0] = nextLineStart(channel, 0);
+            for (int i = 1; i < chunkCount; i++) {
+                bounds[i] = Math.max(bounds[i - 1], nextLineStart(channel, size * i / chunkCount));
+            }
+            bounds[chunkCount] = size;
+
+            try {
+                return IntStream.range(0, chunkCount)
+                        .parallel()
+                        .mapToObj(i -> parseChunk(channel, bounds[i], bounds[i + 1]))
+                        .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static Chunk parseChunk(FileChannel channel, long start, long end) {
+        Chunk chunk = new Chunk();
+        if (start >= end) return chunk;
+        try {
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            CharBuffer chars = StandardCharsets.UTF_8.decode(bytes);
+            RailCsvTokenizer csv = new RailCsvTokenizer(chars.array(),
+                    chars.arrayOffset() + chars.position(), chars.arrayOffset() + chars.limit());
+
+            while (csv.nextRecord()) {
+                if (csv.fieldCount() < 9) continue;
+                chunk.add(csv);
+            }
+            return chunk;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Offset of the first byte after the next '\n' at or after position (the file size if there is none)
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long offset = position;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) return channel.size();
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') return offset + i + 1;
+            }
+            offset += read;
+        }
+    }
+}
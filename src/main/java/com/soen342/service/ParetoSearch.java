@@ -0,0 +1,80 @@
+package com.soen342.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * Multi-criteria search that only returns non-dominated itineraries.
+ *
+ * A trip dominates another if it is no worse on all three criteria: elapsed time
+ * (first departure to last arrival), fare in the chosen class, and number of legs.
+ * The walk follows the catalog's itinerary rules (see ItineraryWalker) but keeps the
+ * current Pareto front while it runs: a partial path is abandoned as soon as a trip
+ * already in the front is at least as good as the best any extension of it could be.
+ */
+public class ParetoSearch {
+
+    public static final int DEFAULT_MAX_LEGS = 3;
+
+    private ConnectionCatalog catalog;
+    private boolean firstClass;
+    private int maxLegs;
+
+    public ParetoSearch(ConnectionCatalog catalog, boolean firstClass, int maxLegs) {
+        this.catalog = catalog;
+        this.firstClass = firstClass;
+        this.maxLegs = maxLegs;
+    }
+
+    /**
+     * Returns the Pareto-optimal trips from origin to destination, fastest first.
+     * The filters of searchParams are applied while walking (see ItineraryWalker).
+     */
+    public List<TripCandidate> search(Parameters searchParams, int origin, int destination) {
+        List<TripCandidate> front = new ArrayList<>();
+        if (origin == CityDictionary.UNKNOWN || destination == CityDictionary.UNKNOWN) return front;
+
+        ItineraryWalker walker = new ItineraryWalker(catalog, origin, destination,
+                SearchFilters.of(searchParams, catalog.getTable()), 1, maxLegs);
+
+        walker.walk(new ItineraryWalker.Visitor() {
+            @Override
+            public void accept(int[] rows, int legs, int travelMinutes, int elapsedMinutes, double fcRate, double scRate) {
+                double cost = firstClass ? fcRate : scRate;
+                if (dominated(front, elapsedMinutes, cost, legs)) return;
+
+                // Evict the trips the new one dominates
+                front.removeIf(trip -> elapsedMinutes <= trip.getElapsedMinutes() && cost <= cost(trip)
+                        && legs <= trip.getNumberOfConnections());
+                front.add(new TripCandidate(Arrays.copyOf(rows, legs), travelMinutes, elapsedMinutes, fcRate, scRate));
+            }
+
+            @Override
+            public boolean shouldExtend(int legs, int travelMinutes, int elapsedMinutes, double fcRate, double scRate) {
+                // Any completion adds at least one more leg and never lowers time or cost
+                return !dominated(front, elapsedMinutes, firstClass ? fcRate : scRate, legs + 1);
+            }
+        });
+
+        front.sort(Comparator.comparingInt(TripCandidate::getElapsedMinutes).thenComparingDouble(this::cost));
+        return front;
+    }
+
+    // True if some trip in the front is at least as good on every criterion
+    private boolean dominated(List<TripCandidate> front, int elapsed, double cost, int legs) {
+        for (TripCandidate trip : front) {
+            if (trip.getElapsedMinutes() <= elapsed && cost(trip) <= cost && trip.getNumberOfConnections() <= legs) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double cost(TripCandidate trip) {
+        return firstClass ? trip.getTotalFCRate() : trip.getTotalSCRate();
+    }
+}
@@ -0,0 +1,197 @@
+package com.soen342.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Single-pass tokenizer for the rail network CSV.
+ *
+ * Reads one record at a time into a reused character buffer, without regular
+ * expressions or per-field strings. Fields may be quoted (a quoted field can hold
+ * commas, and "" stands for a quote); spaces around fields are dropped. Times and
+ * rates are parsed straight from the characters, and only the text columns the
+ * caller asks for become Strings.
+ *
+ * Reads either from a Reader or from a fixed range of a char array.
+ */
+class RailCsvTokenizer {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private Reader reader;       // null when reading from a fixed array
+    private char[] buffer;
+    private int position;
+    private int limit;
+
+    // Current record: field i is line[fieldStart[i] .. fieldEnd[i])
+    private char[] line = new char[256];
+    private int lineLength;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private int fieldCount;
+
+    RailCsvTokenizer(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    RailCsvTokenizer(char[] data, int start, int end) {
+        this.buffer = data;
+        this.position = start;
+        this.limit = end;
+    }
+
+    /**
+     * Reads the next record; returns false at the end of the input
+     */
+    boolean nextRecord() throws IOException {
+        fieldCount = 0;
+        lineLength = 0;
+        if (!fill()) return false;
+
+        while (true) {
+            int c = skipSpaces();
+            int start = lineLength;
+            if (c == '"') {
+                position++;
+                // Quoted: copy until the closing quote; "" is an escaped quote
+                while ((c = peek()) >= 0) {
+                    position++;
+                    if (c == '"') {
+                        if (peek() != '"') break;
+                        position++;
+                    }
+                    append((char) c);
+                }
+                // Anything between the closing quote and the separator is ignored
+                while ((c = peek()) >= 0 && c != ',' && c != '\n' && c != '\r') position++;
+            } else {
+                while ((c = peek()) >= 0 && c != ',' && c != '\n' && c != '\r') {
+                    append((char) c);
+                    position++;
+                }
+            }
+            int end = lineLength;
+            while (end > start && isSpace(line[end - 1])) end--;
+            addField(start, end);
+
+            if (c == ',') {
+                position++;
+                continue;
+            }
+            // End of the record: consume \n, \r or \r\n
+            if (c == '\r') {
+                position++;
+                if (peek() == '\n') position++;
+            } else if (c == '\n') {
+                position++;
+            }
+            return true;
+        }
+    }
+
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    String text(int field) {
+        return new String(line, fieldStart[field], fieldEnd[field] - fieldStart[field]);
+    }
+
+    /**
+     * Parses "HH:MM" into minutes since midnight. Anything after the minutes
+     * (such as the " (+1d)" arrival suffix) is ignored.
+     */
+    int minutes(int field) {
+        int i = fieldStart[field];
+        int end = fieldEnd[field];
+        int hours = 0;
+        int digits = 0;
+        for (; i < end && isDigit(line[i]); i++, digits++) hours = hours * 10 + (line[i] - '0');
+        if (digits == 0 || i >= end || line[i] != ':') throw new NumberFormatException("Bad time: " + text(field));
+        i++;
+        int minutes = 0;
+        digits = 0;
+        for (; i < end && isDigit(line[i]); i++, digits++) minutes = minutes * 10 + (line[i] - '0');
+        if (digits == 0) throw new NumberFormatException("Bad time: " + text(field));
+        return hours * 60 + minutes;
+    }
+
+    /**
+     * Parses a plain decimal such as "115" or "97.50"; other forms go through Double.parseDouble
+     */
+    double decimal(int field) {
+        int i = fieldStart[field];
+        int end = fieldEnd[field];
+        boolean negative = i < end && line[i] == '-';
+        if (negative) i++;
+
+        long mantissa = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            char c = line[i];
+            if (isDigit(c) && digits < 18) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fraction) scale++;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return Double.parseDouble(text(field));
+            }
+        }
+        if (digits == 0) return Double.parseDouble(text(field));
+
+        double value = scale == 0 ? mantissa : mantissa / Math.pow(10, scale);
+        return negative ? -value : value;
+    }
+
+    // Makes sure there is input to read; false at end of input
+    private boolean fill() throws IOException {
+        if (position < limit) return true;
+        if (reader == null) return false;
+        limit = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private int peek() throws IOException {
+        return fill() ? buffer[position] : -1;
+    }
+
+    private int skipSpaces() throws IOException {
+        int c;
+        while ((c = peek()) >= 0 && isSpace((char) c)) position++;
+        return c;
+    }
+
+    private void append(char c) {
+        if (lineLength == line.length) line = Arrays.copyOf(line, line.length * 2);
+        line[lineLength++] = c;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,242 @@
+package com.soen342.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * Round-based (RAPTOR-style) router.
+ *
+ * Routes are derived from the catalog by grouping connections with the same departure and
+ * arrival city; each route's trips are its rows sorted by departure minute. Round k boards
+ * one more route from every city reached in round k - 1, so after round k the router knows
+ * the earliest arrival with k legs (k - 1 transfers). Because the layover rules also impose
+ * a maximum wait, a city keeps every distinct arrival of the previous round rather than
+ * only the earliest one. Arrivals that are not earlier than the best known arrival at the
+ * destination are pruned, which makes the per-round results Pareto-optimal over transfers.
+ *
+ * The search filters are applied like in the other search modes (see SearchFilters): legs
+ * of another train type are never boarded, and a journey must arrive by the latest arrival
+ * time (counted from midnight of the start day) and stay within the rate ceilings. Under a
+ * rate ceiling, labels reaching a city at the same minute are only merged when one is no
+ * dearer in both classes, so a cheaper label is never dropped for a dearer one.
+ *
+ * Instances are built for one catalog version; SearchService rebuilds them after a reload.
+ */
+public class RaptorRouter {
+
+    public static final int DEFAULT_MAX_TRANSFERS = 3;
+
+    private ConnectionCatalog catalog;
+    private ConnectionTable table;
+    private int catalogVersion;
+
+    // Route r goes from routeFrom[r] to routeTo[r]; routeTrips[r] holds its rows by departure minute
+    private int[] routeFrom;
+    private int[] routeTo;
+    private int[][] routeTrips;
+    private int[][] tripDepartures;  // departure minute of each trip in routeTrips, for binary search
+    private int[][] routesByCity;    // city ID -> routes departing from it
+
+    public RaptorRouter(ConnectionCatalog catalog) {
+        this.catalog = catalog;
+        this.table = catalog.getTable();
+        this.catalogVersion = catalog.getVersion();
+        buildRoutes();
+    }
+
+    public int getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    // Splits each city's departures (already in departure-minute order) into one route per destination
+    private void buildRoutes() {
+        int cityCount = catalog.getCityDictionary().size();
+        List<int[]> trips = new ArrayList<>();
+        IntList from = new IntList();
+        IntList to = new IntList();
+        routesByCity = new int[cityCount][];
+
+        int[] routeOfDestination = new int[cityCount];
+        Arrays.fill(routeOfDestination, -1);
+        IntList[] rowsOfRoute = new IntList[cityCount];
+
+        for (int city = 0; city < cityCount; city++) {
+            int[] departures = catalog.getDeparturesFrom(city); // already sorted by departure minute
+
+            IntList destinations = new IntList();
+            for (int row : departures) {
+                int destination = table.arrivalCity(row);
+                if (routeOfDestination[destination] < 0) {
+                    routeOfDestination[destination] = destinations.size();
+                    destinations.add(destination);
+                    rowsOfRoute[destinations.size() - 1] = new IntList();
+                }
+                rowsOfRoute[routeOfDestination[destination]].add(row);
+            }
+
+            routesByCity[city] = new int[destinations.size()];
+            for (int i = 0; i < destinations.size(); i++) {
+                routesByCity[city][i] = trips.size();
+                trips.add(rowsOfRoute[i].toArray());
+                from.add(city);
+                to.add(destinations.get(i));
+                routeOfDestination[destinations.get(i)] = -1;
+            }
+        }
+
+        routeFrom = from.toArray();
+        routeTo = to.toArray();
+        routeTrips = trips.toArray(new int[0][]);
+        tripDepartures = new int[routeTrips.length][];
+        for (int r = 0; r < routeTrips.length; r++) {
+            tripDepartures[r] = new int[routeTrips[r].length];
+            for (int i = 0; i < routeTrips[r].length; i++) {
+                tripDepartures[r][i] = table.departureMinute(routeTrips[r][i]);
+            }
+        }
+    }
+
+    /**
+     * For each day the search may start on, returns the fastest journey for every number of
+     * transfers (0..maxTransfers) that arrives strictly earlier than all journeys with fewer
+     * transfers. Results are ordered by start day, then by number of legs.
+     */
+    public List<TripCandidate> search(Parameters searchParams, int origin, int destination, int maxTransfers) {
+        Set<TripCandidate> result = new LinkedHashSet<>();
+        if (origin == CityDictionary.UNKNOWN || destination == CityDictionary.UNKNOWN || origin == destination) {
+            return new ArrayList<>(result);
+        }
+
+        SearchFilters filters = SearchFilters.of(searchParams, table);
+        if (filters.matchesNothing()) return new ArrayList<>(result);
+
+        for (int startDay = 0; startDay < 7; startDay++) {
+            if (!DayMask.overlaps(filters.days, DayMask.of(startDay))) continue;
+            result.addAll(rounds(origin, destination, startDay, filters, maxTransfers + 1));
+        }
+        return new ArrayList<>(result);
+    }
+
+    // Runs up to maxLegs rounds for one start weekday
+    private List<TripCandidate> rounds(int origin, int destination, int startDay, SearchFilters filters, int maxLegs) {
+        int earliestDeparture = filters.earliestDepartureMinute();
+        List<TripCandidate> paretoSet = new ArrayList<>();
+        int cityCount = catalog.getCityDictionary().size();
+
+        JourneyLabels labels = new JourneyLabels();
+        IntList[] bags = new IntList[cityCount];  // labels reached in the previous round, per city
+        IntList marked = new IntList();            // cities with a non-empty bag
+        int bestArrival = Integer.MAX_VALUE;
+
+        for (int round = 1; round <= maxLegs; round++) {
+            IntList[] nextBags = new IntList[cityCount];
+            IntList nextMarked = new IntList();
+            int roundBest = -1;
+
+            IntList cities = round == 1 ? singleton(origin) : marked;
+            for (int c = 0; c < cities.size(); c++) {
+                int city = cities.get(c);
+                int bagSize = round == 1 ? 1 : bags[city].size();
+
+                for (int route : routesByCity[city]) {
+                    int to = routeTo[route];
+                    if (to == origin) continue;
+
+                    for (int b = 0; b < bagSize; b++) {
+                        int parent = round == 1 ? -1 : bags[city].get(b);
+                        if (parent >= 0 && labels.visits(table, parent, to)) continue;
+                        double parentFC = parent < 0 ? 0.0 : labels.rate(table, parent, true);
+                        double parentSC = parent < 0 ? 0.0 : labels.rate(table, parent, false);
+
+                        // Absolute window of departures this label can catch
+                        int from;
+                        int until;
+                        if (parent < 0) {
+                            from = earliestDeparture;
+                            until = ConnectionTable.MINUTES_PER_DAY - 1;
+                        } else {
+                            from = labels.arrival.get(parent) + 1;
+                            until = labels.arrival.get(parent) + ConnectionCatalog.MAX_LAYOVER_MINUTES;
+                        }
+
+                        for (int day = from / ConnectionTable.MINUTES_PER_DAY; day <= until / ConnectionTable.MINUTES_PER_DAY; day++) {
+                            int dayStart = day * ConnectionTable.MINUTES_PER_DAY;
+                            int weekday = DayMask.of((startDay + day) % 7);
+                            int[] departures = tripDepartures[route];
+
+                            for (int t = lowerBound(departures, from - dayStart); t < departures.length && departures[t] + dayStart <= until; t++) {
+                                int row = routeTrips[route][t];
+                                if ((table.dayMask(row) & weekday) == 0 || !filters.trainTypeMatches(table, row)) continue;
+                                if (parent >= 0 && !ConnectionCatalog.isLayoverValid(
+                                        labels.arrival.get(parent) % ConnectionTable.MINUTES_PER_DAY, departures[t])) {
+                                    continue;
+                                }
+                                if (!filters.withinBudget(parentFC + table.firstClassRate(row),
+                                        parentSC + table.secondClassRate(row))) continue;
+
+                                int arrival = dayStart + departures[t] + table.durationMinutes(row);
+                                if (arrival >= bestArrival) continue; // target pruning
+                                if (!filters.arrivesInTime(0, arrival)) continue; // minutes since start-day midnight
+
+                                if (to == destination) {
+                                    bestArrival = arrival;
+                                    roundBest = labels.add(row, arrival, parent, round);
+                                } else if (round < maxLegs && !covered(labels, nextBags[to], arrival, filters,
+                                        parentFC + table.firstClassRate(row), parentSC + table.secondClassRate(row))) {
+                                    if (nextBags[to] == null) {
+                                        nextBags[to] = new IntList();
+                                        nextMarked.add(to);
+                                    }
+                                    nextBags[to].add(labels.add(row, arrival, parent, round));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+
+            if (roundBest >= 0) paretoSet.add(catalog.candidate(labels.rowsOf(roundBest)));
+            if (nextMarked.isEmpty()) break;
+            bags = nextBags;
+            marked = nextMarked;
+        }
+        return paretoSet;
+    }
+
+    // First index whose value is >= key
+    private static int lowerBound(int[] sorted, int key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // True if the bag already holds a label arriving at the same minute (and, under a rate
+    // ceiling, no dearer in either class than a journey with the given fares)
+    private boolean covered(JourneyLabels labels, IntList bag, int arrival, SearchFilters filters,
+                            double fcRate, double scRate) {
+        if (bag == null) return false;
+        for (int i = 0; i < bag.size(); i++) {
+            int label = bag.get(i);
+            if (labels.arrival.get(label) != arrival) continue;
+            if (!filters.limitsRates()) return true;
+            if (labels.rate(table, label, true) <= fcRate && labels.rate(table, label, false) <= scRate) return true;
+        }
+        return false;
+    }
+
+    private static IntList singleton(int value) {
+        IntList list = new IntList(1);
+        list.add(value);
+        return list;
+    }
+}
@@ -0,0 +1,623 @@
+package com.soen342.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Two-level view of the network. Cities are grouped into regions of nearby
+ * (connected) cities. A city with a connection to or from another region is a
+ * border station.
+ *
+ * Each region keeps its own connections (those between two of its cities), with their
+ * departure index, transfer table and lower bounds. The overlay keeps the connections
+ * between regions plus the ways across a region from one border station to another that
+ * fit in an itinerary (with at most 3 legs, these are the connections between two of its
+ * border stations), with their own departure index and transfer table, and lower bounds
+ * between the border stations.
+ *
+ * A query (see View) uses only the origin's region, the overlay and the destination's
+ * region: an itinerary can only pass through another region by entering and leaving it
+ * at border stations, which is what the overlay keeps, so no trip is lost. Bounds are
+ * combined from the same parts (out of the first region to a border station, across the
+ * overlay, into the last region) and equal the dense LowerBounds without its n-by-n matrix.
+ */
+public class RegionPartition {
+
+    // Regions are grown breadth-first up to this many cities
+    public static final int TARGET_REGION_SIZE = 32;
+
+    // Larger than any number of legs, small enough to add a few without overflow
+    private static final int FAR = Integer.MAX_VALUE / 4;
+
+    // The connections of one region, or of the overlay
+    private static final class Cell {
+        int[] rows;              // by position, in departure order
+        int[] cities;            // by slot
+        int[] slotOf;            // city ID -> slot (only valid for cities of this cell)
+        int[] departureOffsets;  // slot -> range of departureRows
+        int[] departureRows;     // the cell's rows leaving each city, earliest first
+        int[] departureMinutes;
+        TransferTable transfers; // by position; targets are rows of this cell
+        LowerBounds bounds;      // between the cities of a region, by slot (null for the overlay)
+    }
+
+    private ConnectionTable table;
+    private int maxLegs;
+
+    private int[] regionOf;
+    private int regionCount;
+    private boolean[] border;
+    private int[][] bordersByRegion;
+
+    // Slot of each city in its region, and among the border stations (-1 if not one)
+    private int[] localIndex;
+    private int[] borderIndex;
+    private int borderCount;
+
+    // Per row: the region holding it (-1 if it runs between regions) and its position there,
+    // and its position in the overlay (-1 if not part of it)
+    private int[] regionOfRow;
+    private int[] regionPosition;
+    private int[] overlayPosition;
+
+    private Cell[] regions;
+    private Cell overlay;
+    private LowerBounds overlayBounds;   // between border stations, by borderIndex
+
+    /**
+     * Builds the partition for itineraries of at most maxLegs legs
+     */
+    static RegionPartition build(ConnectionCatalog catalog, int maxLegs) {
+        ConnectionTable table = catalog.getTable();
+        int n = catalog.getCityDictionary().size();
+        RegionPartition partition = new RegionPartition();
+        partition.table = table;
+        partition.maxLegs = maxLegs;
+
+        // City graph (one edge per ordered city pair)
+        List<IntList> out = new ArrayList<>(n);
+        List<IntList> in = new ArrayList<>(n);
+        for (int c = 0; c < n; c++) {
+            out.add(new IntList(4));
+            in.add(new IntList(4));
+        }
+        Set<Long> seen = new HashSet<>();
+        for (int row = 0; row < table.size(); row++) {
+            int from = table.departureCity(row);
+            int to = table.arrivalCity(row);
+            if (from == to || !seen.add((long) from * n + to)) continue;
+            out.get(from).add(to);
+            in.get(to).add(from);
+        }
+
+        // Partitioning pass: grow each region breadth-first (ignoring direction) from the lowest unassigned city
+        int[] regionOf = new int[n];
+        Arrays.fill(regionOf, -1);
+        int regionCount = 0;
+        int[] queue = new int[n];
+        for (int seed = 0; seed < n; seed++) {
+            if (regionOf[seed] >= 0) continue;
+            int region = regionCount++;
+            int head = 0;
+            int tail = 0;
+            int members = 1;
+            regionOf[seed] = region;
+            queue[tail++] = seed;
+            while (head < tail && members < TARGET_REGION_SIZE) {
+                int city = queue[head++];
+                for (IntList neighbours : List.of(out.get(city), in.get(city))) {
+                    for (int i = 0; i < neighbours.size() && members < TARGET_REGION_SIZE; i++) {
+                        int next = neighbours.get(i);
+                        if (regionOf[next] >= 0) continue;
+                        regionOf[next] = region;
+                        queue[tail++] = next;
+                        members++;
+                    }
+                }
+            }
+        }
+        partition.regionOf = regionOf;
+        partition.regionCount = regionCount;
+
+        partition.findBorderStations(out, in);
+        partition.buildCells(catalog, out, in);
+        partition.buildOverlayBounds();
+        return partition;
+    }
+
+    // Marks the border stations and numbers the cities inside their region and among the border stations
+    private void findBorderStations(List<IntList> out, List<IntList> in) {
+        int n = regionOf.length;
+        border = new boolean[n];
+        for (int c = 0; c < n; c++) {
+            for (IntList neighbours : List.of(out.get(c), in.get(c))) {
+                for (int i = 0; i < neighbours.size(); i++) {
+                    if (regionOf[neighbours.get(i)] != regionOf[c]) border[c] = true;
+                }
+            }
+        }
+
+        localIndex = new int[n];
+        borderIndex = new int[n];
+        int[] regionSizes = new int[regionCount];
+        List<IntList> borders = new ArrayList<>(regionCount);
+        for (int r = 0; r < regionCount; r++) borders.add(new IntList());
+        for (int c = 0; c < n; c++) {
+            localIndex[c] = regionSizes[regionOf[c]]++;
+            borderIndex[c] = border[c] ? borderCount++ : -1;
+            if (border[c]) borders.get(regionOf[c]).add(c);
+        }
+        bordersByRegion = new int[regionCount][];
+        for (int r = 0; r < regionCount; r++) bordersByRegion[r] = borders.get(r).toArray();
+    }
+
+    // Splits the rows into the regions' cells and the overlay, and builds each cell's indexes
+    private void buildCells(ConnectionCatalog catalog, List<IntList> out, List<IntList> in) {
+        int n = regionOf.length;
+        int rowCount = table.size();
+
+        // A way across a region is part of the overlay if it fits between the two legs
+        // that enter and leave the region: fewest legs from a border station to its start,
+        // plus itself, plus fewest legs from its end to a border station
+        int[] fromBorder = borderDistances(out);
+        int[] toBorder = borderDistances(in);
+        int transitLegs = maxLegs - 2;
+
+        List<IntList> regionRows = new ArrayList<>(regionCount);
+        for (int r = 0; r < regionCount; r++) regionRows.add(new IntList());
+        IntList overlayRows = new IntList();
+        regionOfRow = new int[rowCount];
+        Arrays.fill(regionOfRow, -1);
+        for (int row : catalog.getConnectionsByDeparture()) {
+            int from = table.departureCity(row);
+            int to = table.arrivalCity(row);
+            if (regionOf[from] != regionOf[to]) {
+                overlayRows.add(row);
+                continue;
+            }
+            regionOfRow[row] = regionOf[from];
+            regionRows.get(regionOf[from]).add(row);
+            if (fromBorder[from] + 1 + toBorder[to] <= transitLegs) overlayRows.add(row);
+        }
+
+        regionPosition = new int[rowCount];
+        int[][] members = new int[regionCount][];
+        for (int r = 0; r < regionCount; r++) members[r] = new int[0];
+        int[] fill = new int[regionCount];
+        for (int c = 0; c < n; c++) {
+            int r = regionOf[c];
+            if (members[r].length == fill[r]) members[r] = Arrays.copyOf(members[r], Math.max(4, fill[r] * 2));
+            members[r][fill[r]++] = c;
+        }
+        regions = new Cell[regionCount];
+        for (int r = 0; r < regionCount; r++) {
+            regions[r] = cell(regionRows.get(r).toArray(), Arrays.copyOf(members[r], fill[r]), localIndex, regionPosition);
+
+            LowerBounds.Edges edges = new LowerBounds.Edges(fill[r]);
+            for (int row : regions[r].rows) {
+                edges.add(localIndex[table.departureCity(row)], localIndex[table.arrivalCity(row)],
+                        table.durationMinutes(row), table.firstClassRate(row), table.secondClassRate(row), 1);
+            }
+            regions[r].bounds = LowerBounds.build(edges);
+        }
+
+        // Overlay cities: the ends of the overlay's rows
+        int[] overlaySlot = new int[n];
+        Arrays.fill(overlaySlot, -1);
+        IntList overlayCities = new IntList();
+        for (int i = 0; i < overlayRows.size(); i++) {
+            int row = overlayRows.get(i);
+            for (int city : new int[] {table.departureCity(row), table.arrivalCity(row)}) {
+                if (overlaySlot[city] >= 0) continue;
+                overlaySlot[city] = overlayCities.size();
+                overlayCities.add(city);
+            }
+        }
+        overlayPosition = new int[rowCount];
+        Arrays.fill(overlayPosition, -1);
+        overlay = cell(overlayRows.toArray(), overlayCities.toArray(), overlaySlot, overlayPosition);
+    }
+
+    // Fewest legs inside its region between each city and the nearest border station
+    // (from one when edges are the outgoing ones, to one when they are the incoming ones)
+    private int[] borderDistances(List<IntList> edges) {
+        int n = regionOf.length;
+        int[] dist = new int[n];
+        Arrays.fill(dist, FAR);
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int c = 0; c < n; c++) {
+            if (!border[c]) continue;
+            dist[c] = 0;
+            queue[tail++] = c;
+        }
+        while (head < tail) {
+            int city = queue[head++];
+            IntList neighbours = edges.get(city);
+            for (int i = 0; i < neighbours.size(); i++) {
+                int next = neighbours.get(i);
+                if (regionOf[next] != regionOf[city] || dist[next] != FAR) continue;
+                dist[next] = dist[city] + 1;
+                queue[tail++] = next;
+            }
+        }
+        return dist;
+    }
+
+    // Builds the departure index and transfer table of a cell; rows must be in departure order
+    private Cell cell(int[] rows, int[] cities, int[] slotOf, int[] positionOf) {
+        Cell cell = new Cell();
+        cell.rows = rows;
+        cell.cities = cities;
+        cell.slotOf = slotOf;
+        for (int p = 0; p < rows.length; p++) positionOf[rows[p]] = p;
+
+        // Bucketing rows in departure order leaves each city's departures sorted by time
+        cell.departureOffsets = new int[cities.length + 1];
+        for (int row : rows) cell.departureOffsets[slotOf[table.departureCity(row)] + 1]++;
+        for (int s = 0; s < cities.length; s++) cell.departureOffsets[s + 1] += cell.departureOffsets[s];
+        int[] next = Arrays.copyOf(cell.departureOffsets, cities.length);
+        cell.departureRows = new int[rows.length];
+        cell.departureMinutes = new int[rows.length];
+        for (int row : rows) {
+            int i = next[slotOf[table.departureCity(row)]]++;
+            cell.departureRows[i] = row;
+            cell.departureMinutes[i] = table.departureMinute(row);
+        }
+
+        int[] offsets = new int[rows.length + 1];
+        IntList targets = new IntList(Math.max(rows.length, 1));
+        for (int p = 0; p < rows.length; p++) {
+            addLayoverWindow(cell, rows[p], targets);
+            offsets[p + 1] = targets.size();
+        }
+        cell.transfers = new TransferTable(offsets, targets.toArray());
+        return cell;
+    }
+
+    // Overlay graph for the bounds: the connections between regions, plus one edge per pair of
+    // border stations of a region standing for the best way across it
+    private void buildOverlayBounds() {
+        LowerBounds.Edges edges = new LowerBounds.Edges(borderCount);
+        for (int row : overlay.rows) {
+            int from = table.departureCity(row);
+            int to = table.arrivalCity(row);
+            if (regionOf[from] == regionOf[to]) continue;
+            edges.add(borderIndex[from], borderIndex[to], table.durationMinutes(row),
+                    table.firstClassRate(row), table.secondClassRate(row), 1);
+        }
+        for (int r = 0; r < regionCount; r++) {
+            LowerBounds local = regions[r].bounds;
+            for (int from : bordersByRegion[r]) {
+                for (int to : bordersByRegion[r]) {
+                    int a = localIndex[from];
+                    int b = localIndex[to];
+                    if (from == to || local.minLegs(a, b) == LowerBounds.UNREACHABLE) continue;
+                    edges.add(borderIndex[from], borderIndex[to], local.minMinutes(a, b),
+                            local.minFCRate(a, b), local.minSCRate(a, b), local.minLegs(a, b));
+                }
+            }
+        }
+        overlayBounds = LowerBounds.build(edges);
+    }
+
+    /**
+     * Adds the cell's rows that can be boarded after riding row, in the order of the
+     * catalog's TransferTable: the layover window, then (if it runs past midnight) the part
+     * after midnight
+     */
+    private void addLayoverWindow(Cell cell, int row, IntList out) {
+        int slot = cell.slotOf[table.arrivalCity(row)];
+        int arrivalMinute = table.arrivalMinute(row);
+        int from = arrivalMinute + ConnectionCatalog.minLayoverMinutes(arrivalMinute);
+        int until = arrivalMinute + ConnectionCatalog.maxLayoverMinutes(arrivalMinute);
+
+        addDepartures(cell, slot, from, Math.min(until, ConnectionTable.MINUTES_PER_DAY - 1), out);
+        if (until >= ConnectionTable.MINUTES_PER_DAY) {
+            addDepartures(cell, slot, Math.max(from - ConnectionTable.MINUTES_PER_DAY, 0),
+                    until - ConnectionTable.MINUTES_PER_DAY, out);
+        }
+    }
+
+    // Adds the cell's departures from a city between the two minutes of the day (inclusive)
+    private static void addDepartures(Cell cell, int slot, int fromMinute, int untilMinute, IntList out) {
+        int end = cell.departureOffsets[slot + 1];
+        for (int i = firstAtOrAfter(cell, slot, fromMinute); i < end && cell.departureMinutes[i] <= untilMinute; i++) {
+            out.add(cell.departureRows[i]);
+        }
+    }
+
+    // Binary search: index of the cell's first departure from a city at or after the minute
+    private static int firstAtOrAfter(Cell cell, int slot, int minuteOfDay) {
+        int lo = cell.departureOffsets[slot];
+        int hi = cell.departureOffsets[slot + 1];
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cell.departureMinutes[mid] < minuteOfDay) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    public int getRegionCount() {
+        return regionCount;
+    }
+
+    public int regionOf(int city) {
+        return regionOf[city];
+    }
+
+    public boolean isBorderStation(int city) {
+        return border[city];
+    }
+
+    public int[] getBorderStations(int region) {
+        return bordersByRegion[region];
+    }
+
+    // Rows of the connections inside a region, in departure order
+    public int[] getRegionRows(int region) {
+        return regions[region].rows;
+    }
+
+    // Rows of the overlay, in departure order
+    public int[] getOverlayRows() {
+        return overlay.rows;
+    }
+
+    /**
+     * Lower bounds from every city to the destination, combined from the regions' and the
+     * overlay's bounds
+     */
+    public DestinationBounds boundsTo(int destination) {
+        DestinationBounds result = new DestinationBounds(destination, regionOf.length);
+        Towards towards = new Towards(destination);
+        for (int city = 0; city < regionOf.length; city++) fill(result, city, towards, city);
+        return result;
+    }
+
+    // Fewest legs from one city to another (LowerBounds.UNREACHABLE if there is no way)
+    public int minLegs(int from, int to) {
+        int fromRegion = regionOf[from];
+        int toRegion = regionOf[to];
+        double best = fromRegion == toRegion
+                ? regions[fromRegion].bounds.measure(3, localIndex[from], localIndex[to]) : Double.POSITIVE_INFINITY;
+        for (int exit : bordersByRegion[fromRegion]) {
+            double out = regions[fromRegion].bounds.measure(3, localIndex[from], localIndex[exit]);
+            for (int entry : bordersByRegion[toRegion]) {
+                best = Math.min(best, out + overlayBounds.measure(3, borderIndex[exit], borderIndex[entry])
+                        + regions[toRegion].bounds.measure(3, localIndex[entry], localIndex[to]));
+            }
+        }
+        return best == Double.POSITIVE_INFINITY ? LowerBounds.UNREACHABLE : (int) best;
+    }
+
+    // For every border station and measure, the best bound to one destination through the
+    // overlay and then inside the destination's region, worked out for a station when first needed
+    private final class Towards {
+
+        private int destination;
+        private double[][] best = new double[4][borderCount];
+        private boolean[] known = new boolean[borderCount];
+
+        Towards(int destination) {
+            this.destination = destination;
+        }
+
+        double measure(int m, int border) {
+            if (!known[border]) {
+                known[border] = true;
+                int region = regionOf[destination];
+                LowerBounds local = regions[region].bounds;
+                for (int k = 0; k < 4; k++) best[k][border] = Double.POSITIVE_INFINITY;
+                for (int entry : bordersByRegion[region]) {
+                    int e = borderIndex[entry];
+                    for (int k = 0; k < 4; k++) {
+                        double inside = local.measure(k, localIndex[entry], localIndex[destination]);
+                        if (inside == Double.POSITIVE_INFINITY) continue;
+                        best[k][border] = Math.min(best[k][border], overlayBounds.measure(k, border, e) + inside);
+                    }
+                }
+            }
+            return best[m][border];
+        }
+    }
+
+    // Bounds of one city, stored in the given slot: inside the destination's region, or out of
+    // its own region and through the overlay
+    private void fill(DestinationBounds result, int slot, Towards towards, int city) {
+        double[] best = new double[4];
+        if (border[city]) {
+            // The overlay already covers every way out of the region from a border station
+            for (int m = 0; m < 4; m++) best[m] = towards.measure(m, borderIndex[city]);
+        } else {
+            int region = regionOf[city];
+            LowerBounds local = regions[region].bounds;
+            int destination = result.getDestination();
+            for (int m = 0; m < 4; m++) {
+                best[m] = region == regionOf[destination]
+                        ? local.measure(m, localIndex[city], localIndex[destination]) : Double.POSITIVE_INFINITY;
+                for (int exit : bordersByRegion[region]) {
+                    best[m] = Math.min(best[m], local.measure(m, localIndex[city], localIndex[exit])
+                            + towards.measure(m, borderIndex[exit]));
+                }
+            }
+        }
+        result.set(slot, best[0] == Double.POSITIVE_INFINITY ? LowerBounds.UNREACHABLE : (int) best[0],
+                best[1], best[2], best[3] == Double.POSITIVE_INFINITY ? LowerBounds.UNREACHABLE : (int) best[3]);
+    }
+
+    /**
+     * The part of the network one query may use: every connection of the origin's and the
+     * destination's regions, and the overlay's connections outside those two regions. Each
+     * row is in exactly one of these parts. Not thread-safe.
+     */
+    public View view(int origin, int destination) {
+        return new View(origin, destination);
+    }
+
+    public final class View {
+
+        private int originRegion;
+        private int destinationRegion;
+        private int destinationOffset;  // first slot of the destination's region, then of the overlay
+        private int overlayOffset;
+        private DestinationBounds bounds;
+        private IntList merged = new IntList();
+
+        private View(int origin, int destination) {
+            this.originRegion = regionOf[origin];
+            this.destinationRegion = regionOf[destination];
+            destinationOffset = regions[originRegion].cities.length;
+            overlayOffset = destinationOffset
+                    + (destinationRegion == originRegion ? 0 : regions[destinationRegion].cities.length);
+
+            // Bounds only for the cities the query can reach, one slot each, worked out as the
+            // search first asks for them
+            Towards towards = new Towards(destination);
+            boolean[] known = new boolean[getCityCount()];
+            bounds = new DestinationBounds(destination, getCityCount()) {
+                @Override
+                int slotOf(int city) {
+                    int slot = View.this.slotOf(city);
+                    if (slot >= 0 && !known[slot]) {
+                        known[slot] = true;
+                        fill(this, slot, towards, city);
+                    }
+                    return slot;
+                }
+            };
+        }
+
+        public DestinationBounds getBounds() {
+            return bounds;
+        }
+
+        // Number of cities the query can reach: those of the two regions and of the overlay
+        int getCityCount() {
+            return overlayOffset + overlay.cities.length;
+        }
+
+        /**
+         * Numbers the cities the query can reach from 0 to getCityCount() - 1 (-1 for any
+         * other city), so per-query arrays need not be sized to the whole network
+         */
+        int slotOf(int city) {
+            int region = regionOf[city];
+            if (region == originRegion) return localIndex[city];
+            if (region == destinationRegion) return destinationOffset + localIndex[city];
+            int slot = overlay.slotOf[city];
+            return slot < 0 ? -1 : overlayOffset + slot;
+        }
+
+        // True if the row belongs to the part of the network this query uses
+        private boolean usable(int row) {
+            int region = regionOfRow[row];
+            if (region == originRegion || region == destinationRegion) return true;
+            return overlayPosition[row] >= 0;
+        }
+
+        // True if the row is used through its region's cell rather than through the overlay
+        private boolean inRegionCell(int row) {
+            int region = regionOfRow[row];
+            return region == originRegion || region == destinationRegion;
+        }
+
+        /**
+         * Adds the rows leaving city (in the origin's region) at or after the minute,
+         * earliest first, in the same order as ConnectionCatalog.getDeparturesFrom
+         */
+        void addDepartures(int city, int fromMinute, IntList out) {
+            int start = out.size();
+            Cell local = regions[regionOf[city]];
+            int slot = local.slotOf[city];
+            for (int i = firstAtOrAfter(local, slot, fromMinute); i < local.departureOffsets[slot + 1]; i++) {
+                out.add(local.departureRows[i]);
+            }
+            int middle = out.size();
+            slot = overlay.slotOf[city];
+            if (slot >= 0) {
+                for (int i = firstAtOrAfter(overlay, slot, fromMinute); i < overlay.departureOffsets[slot + 1]; i++) {
+                    int row = overlay.departureRows[i];
+                    if (!inRegionCell(row)) out.add(row);
+                }
+            }
+            merge(out, start, middle, 0);
+        }
+
+        /**
+         * Adds the rows of this query that can be boarded after riding row, in the same order
+         * as the catalog's TransferTable
+         */
+        void addTransfers(int row, IntList out) {
+            int start = out.size();
+            int city = table.arrivalCity(row);
+            if (inRegionCell(row)) {
+                // Inside the region from its own transfer table, into the overlay at a border station
+                TransferTable transfers = regions[regionOfRow[row]].transfers;
+                int p = regionPosition[row];
+                for (int t = transfers.start(p); t < transfers.end(p); t++) out.add(transfers.target(t));
+                int middle = out.size();
+                int slot = overlay.slotOf[city];
+                if (slot >= 0) addUsableLayoverWindow(overlay, row, out, middle);
+                merge(out, start, middle, layoverStart(row));
+            } else {
+                // On the overlay from its own transfer table, into the origin's or destination's region
+                TransferTable transfers = overlay.transfers;
+                int p = overlayPosition[row];
+                for (int t = transfers.start(p); t < transfers.end(p); t++) {
+                    int next = transfers.target(t);
+                    if (usable(next) && !inRegionCell(next)) out.add(next);
+                }
+                int middle = out.size();
+                int region = regionOf[city];
+                if (region == originRegion || region == destinationRegion) addLayoverWindow(regions[region], row, out);
+                merge(out, start, middle, layoverStart(row));
+            }
+        }
+
+        // Adds the cell's rows in the layover window after row, leaving out those this query takes from a region's cell
+        private void addUsableLayoverWindow(Cell cell, int row, IntList out, int from) {
+            addLayoverWindow(cell, row, out);
+            int kept = from;
+            for (int i = from; i < out.size(); i++) {
+                if (!inRegionCell(out.get(i))) out.set(kept++, out.get(i));
+            }
+            out.truncate(kept);
+        }
+
+        /**
+         * Merges the two runs out[start, middle) and out[middle, end), each ordered by minutes
+         * after originMinute (wrapping at midnight) and then row, into one such run
+         */
+        private void merge(IntList out, int start, int middle, int originMinute) {
+            int end = out.size();
+            if (start == middle || middle == end) return;
+            merged.clear();
+            int a = start;
+            int b = middle;
+            while (a < middle && b < end) {
+                if (key(out.get(a), originMinute) <= key(out.get(b), originMinute)) merged.add(out.get(a++));
+                else merged.add(out.get(b++));
+            }
+            while (a < middle) merged.add(out.get(a++));
+            while (b < end) merged.add(out.get(b++));
+            for (int i = 0; i < merged.size(); i++) out.set(start + i, merged.get(i));
+        }
+
+        private long key(int row, int originMinute) {
+            int minutes = Math.floorMod(table.departureMinute(row) - originMinute, ConnectionTable.MINUTES_PER_DAY);
+            return (long) minutes * table.size() + row;
+        }
+
+        // First minute of the layover window after row
+        private int layoverStart(int row) {
+            int arrivalMinute = table.arrivalMinute(row);
+            return arrivalMinute + ConnectionCatalog.minLayoverMinutes(arrivalMinute);
+        }
+    }
+}
@@ -111,10 +111,9 @@ public class RetrievalDAO {
         String daysOfOperation = firstConn.getParameters().getDaysOfOperation();
         if (daysOfOperation == null) return false;
         
-        String todayName = today.getDayOfWeek().toString().substring(0, 3);
-        
-        // If days contains today or if it's "Daily", consider it current
-        return daysOfOperation.contains(todayName) || daysOfOperation.contains("Daily");
+        // If the train runs today (including "Daily"), consider it current
+        int todayIndex = today.getDayOfWeek().getValue() - 1; // DayOfWeek: Mon = 1
+        return DayMask.overlaps(DayMask.parse(daysOfOperation), DayMask.of(todayIndex));
     }
     
     /**
@@ -0,0 +1,53 @@
+package com.soen342.service;
+
+/**
+ * Limits how long a single search may run, by wall-clock time, by the number of
+ * partial itineraries expanded, or both. The search checks it as it goes and stops
+ * early once it runs out, keeping the trips found so far.
+ *
+ * A budget counts for one search only and is not thread-safe.
+ */
+public class SearchBudget {
+
+    // The clock is read only every this many expansions
+    private static final int CLOCK_CHECK_INTERVAL = 256;
+
+    private long deadlineNanos;    // 0 = no time limit
+    private long maxExpansions;    // 0 = no expansion limit
+    private long explored;
+    private boolean exhausted;
+
+    /**
+     * @param timeLimitMillis wall-clock limit starting now, 0 for none
+     * @param maxExpansions   most partial itineraries to expand, 0 for none
+     */
+    public SearchBudget(long timeLimitMillis, long maxExpansions) {
+        this.deadlineNanos = timeLimitMillis > 0 ? System.nanoTime() + timeLimitMillis * 1_000_000L : 0;
+        this.maxExpansions = maxExpansions;
+    }
+
+    public static SearchBudget unlimited() {
+        return new SearchBudget(0, 0);
+    }
+
+    // Records one expansion; returns false once the budget is used up
+    boolean spend() {
+        if (exhausted) return false;
+        if (maxExpansions > 0 && explored >= maxExpansions) {
+            exhausted = true;
+        } else if (deadlineNanos != 0 && explored % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() >= deadlineNanos) {
+            exhausted = true;
+        } else {
+            explored++;
+        }
+        return !exhausted;
+    }
+
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    public long getExplored() {
+        return explored;
+    }
+}
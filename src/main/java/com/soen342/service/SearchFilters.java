@@ -0,0 +1,74 @@
+package com.soen342.service;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * The optional filters of a search, resolved once from Parameters into primitives
+ * so they can be checked leg by leg while a search walks the network.
+ */
+class SearchFilters {
+
+    int days;                    // DayMask of the days the trip may start on
+    int earliestDeparture = -1;  // seconds since midnight, -1 if not given
+    int latestArrival = -1;      // seconds since midnight, -1 if not given
+    int trainType = -1;          // ConnectionTable train type code, -1 if not given
+    boolean unknownTrainType;    // a train type was given but no connection uses it
+    double maxFCRate;            // 0 if not given
+    double maxSCRate;            // 0 if not given
+
+    static SearchFilters of(Parameters searchParams, ConnectionTable table) {
+        SearchFilters filters = new SearchFilters();
+        filters.days = ConnectionCatalog.queryDays(searchParams);
+        if (searchParams.getDepartureTime() != null) {
+            filters.earliestDeparture = ConnectionCatalog.secondOfDay(searchParams.getDepartureTime());
+        }
+        if (searchParams.getArrivalTime() != null) {
+            filters.latestArrival = ConnectionCatalog.secondOfDay(searchParams.getArrivalTime());
+        }
+        if (searchParams.getTrainType() != null) {
+            filters.trainType = table.trainTypeCode(searchParams.getTrainType());
+            filters.unknownTrainType = filters.trainType < 0;
+        }
+        filters.maxFCRate = searchParams.getFirstClassRate();
+        filters.maxSCRate = searchParams.getSecondClassRate();
+        return filters;
+    }
+
+    // True if no connection can ever pass these filters
+    boolean matchesNothing() {
+        return unknownTrainType || days == DayMask.NONE;
+    }
+
+    // First departure minute of the day allowed by the departure-time filter
+    int earliestDepartureMinute() {
+        return earliestDeparture < 0 ? 0 : (earliestDeparture + 59) / 60;
+    }
+
+    boolean departsInTime(ConnectionTable table, int row) {
+        return earliestDeparture < 0 || table.departureMinute(row) * 60 >= earliestDeparture;
+    }
+
+    boolean trainTypeMatches(ConnectionTable table, int row) {
+        return trainType < 0 || table.trainType(row) == trainType;
+    }
+
+    boolean limitsRates() {
+        return maxFCRate > 0 || maxSCRate > 0;
+    }
+
+    // Rate ceilings apply to the trip's total fare in each class
+    boolean withinBudget(double fcRate, double scRate) {
+        return (maxFCRate <= 0 || fcRate <= maxFCRate) && (maxSCRate <= 0 || scRate <= maxSCRate);
+    }
+
+    // Arrival counted from the first departure, on the day the trip starts. Not wrapped at
+    // midnight: a trip arriving the next day is later than any latest arrival time.
+    boolean arrivesInTime(int firstDepartureMinute, int elapsedMinutes) {
+        return latestArrival < 0 || (firstDepartureMinute + elapsedMinutes) * 60 <= latestArrival;
+    }
+
+    // The whole-trip checks, the same for direct and indirect trips in every search mode
+    boolean acceptsTrip(int firstDepartureMinute, int elapsedMinutes, double fcRate, double scRate) {
+        return withinBudget(fcRate, scRate) && arrivesInTime(firstDepartureMinute, elapsedMinutes);
+    }
+}
@@ -1,65 +1,114 @@
 package com.soen342.service;
 
-import java.util.Comparator;
 import java.util.List;
 
 import com.soen342.domain.Trip;
 
 public class SearchResult {
     
-    private List<Trip> searchResultDirect;
-    private List<Trip> searchResultIndirect;
+    private ConnectionCatalog catalog;
+    private List<TripCandidate> searchResultDirect;
+    private List<TripCandidate> searchResultIndirect;
+    private long exploredCount;     // partial itineraries expanded by the search
+    private boolean incomplete;     // the search ran out of budget before finishing
+    private boolean fromCache;      // returned from the search result cache instead of searched
+    private boolean fallback;       // the requested search mode was unavailable; searchTrips answered
+
+    // Results are kept as candidates; Trips (and their IDs) are created only when displayed or booked
+    public SearchResult(ConnectionCatalog catalog, List<TripCandidate> searchResultDirect, List<TripCandidate> searchResultIndirect) {
+        this(catalog, searchResultDirect, searchResultIndirect, 0, false);
+    }
 
-    public SearchResult(List<Trip> searchResultDirect, List<Trip> searchResultIndirect) {
+    public SearchResult(ConnectionCatalog catalog, List<TripCandidate> searchResultDirect, List<TripCandidate> searchResultIndirect,
+                        long exploredCount, boolean incomplete) {
+        this.catalog = catalog;
         this.searchResultDirect = searchResultDirect;
         this.searchResultIndirect = searchResultIndirect;
+        this.exploredCount = exploredCount;
+        this.incomplete = incomplete;
     }
 
+    // Builds the Trip objects for the direct results (allocates trip IDs on first call)
     public List<Trip> getSearchResultDirect() {
-        return searchResultDirect;
+        return catalog.toTrips(searchResultDirect);
     }
 
+    // Builds the Trip objects for the indirect results (allocates trip IDs on first call)
     public List<Trip> getSearchResultIndirect() {
+        return catalog.toTrips(searchResultIndirect);
+    }
+
+    public List<TripCandidate> getDirectCandidates() {
+        return searchResultDirect;
+    }
+
+    public List<TripCandidate> getIndirectCandidates() {
         return searchResultIndirect;
     }
 
-    public void setSearchResultDirect(List<Trip> searchResultDirect) {
-        this.searchResultDirect = searchResultDirect;
+    // 0 when nothing was searched: for results served from the cache and modes that do not count
+    public long getExploredCount() {
+        return exploredCount;
     }
 
-    public void setSearchResultIndirect(List<Trip> searchResultIndirect) {
-        this.searchResultIndirect = searchResultIndirect;
+    // True if the trips came from the search result cache instead of a search
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    void markFromCache() {
+        this.fromCache = true;
+    }
+
+    // True if the requested search mode could not be used and the regular search answered instead
+    public boolean isFallback() {
+        return fallback;
+    }
+
+    void markFallback() {
+        this.fallback = true;
+    }
+
+    // True if the search was cut short, so more trips may exist than listed
+    public boolean isIncomplete() {
+        return incomplete;
+    }
+
+    public boolean isEmpty() {
+        return searchResultDirect.isEmpty() && searchResultIndirect.isEmpty();
+    }
+
+    public void sort(TripOrder order) {
+        searchResultDirect.sort(order.comparator());
+        searchResultIndirect.sort(order.comparator());
     }
 
     public void sortDurationAsc() {
-        searchResultDirect.sort(Comparator.comparing(Trip::getTotalTime));
-        searchResultIndirect.sort(Comparator.comparing(Trip::getTotalTime));
+        sort(TripOrder.DURATION_ASC);
     }
 
     public void sortDurationDesc() {
-        searchResultDirect.sort(Comparator.comparing(Trip::getTotalTime).reversed());
-        searchResultIndirect.sort(Comparator.comparing(Trip::getTotalTime).reversed());
+        sort(TripOrder.DURATION_DESC);
     }
 
     public void sortPriceAsc() {
-        searchResultDirect.sort(Comparator.comparing(Trip::getTotalSCRate));
-        searchResultIndirect.sort(Comparator.comparing(Trip::getTotalSCRate));
+        sort(TripOrder.PRICE_ASC);
     }
 
     public void sortPriceDesc() {
-        searchResultDirect.sort(Comparator.comparing(Trip::getTotalFCRate).reversed());
-        searchResultIndirect.sort(Comparator.comparing(Trip::getTotalFCRate).reversed());
+        sort(TripOrder.PRICE_DESC);
     }
 
+    // Only trips that were already materialized (i.e. displayed) have an ID to match
     public Trip getTripByID(String tripID) {
-        for (Trip trip : searchResultDirect) {
-            if (trip.getTripID().equals(tripID)) {
-                return trip;
+        for (TripCandidate candidate : searchResultDirect) {
+            if (candidate.getTrip() != null && candidate.getTrip().getTripID().equals(tripID)) {
+                return candidate.getTrip();
             }
         }
-        for (Trip trip : searchResultIndirect) {
-            if (trip.getTripID().equals(tripID)) {
-                return trip;
+        for (TripCandidate candidate : searchResultIndirect) {
+            if (candidate.getTrip() != null && candidate.getTrip().getTripID().equals(tripID)) {
+                return candidate.getTrip();
             }
         }
         return null;
@@ -74,7 +123,7 @@ public String toString() {
     if (searchResultDirect.isEmpty()) {
         sb.append("  No direct trips found.\n");
     } else {
-        for (Trip trip : searchResultDirect) {
+        for (Trip trip : getSearchResultDirect()) {
             sb.append(trip.toString()).append("\n");
         }
     }
@@ -85,10 +134,13 @@ public String toString() {
     if (searchResultIndirect.isEmpty()) {
         sb.append("  No indirect trips found.\n");
     } else {
-        for (Trip trip : searchResultIndirect) {
+        for (Trip trip : getSearchResultIndirect()) {
             sb.append(trip.toString()).append("\n");
         }
     }
+    if (incomplete) {
+        sb.append("  (Search stopped early; more indirect trips may exist.)\n");
+    }
 
     return sb.toString();
 }
@@ -0,0 +1,132 @@
+package com.soen342.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * Bounded LRU cache of search results, keyed by a normalized copy of the search Parameters.
+ *
+ * Only the candidates are cached. Every hit returns fresh copies, so callers can sort their
+ * result and materialize trips (allocating trip IDs) without affecting other callers.
+ * The whole cache is dropped when the catalog's version changes (i.e. after a reload).
+ */
+public class SearchResultCache {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Immutable, normalized form of Parameters: case-folded cities and train type, times in
+     * seconds (-1 if not given), days as a DayMask ("Daily", "Mon-Sun" and no filter are equal)
+     * and rate ceilings clamped to 0 when not given.
+     */
+    public record Key(String departureCity, String arrivalCity, int departureSecond, int arrivalSecond,
+                      String trainType, int days, double maxFCRate, double maxSCRate) {
+
+        public static Key of(Parameters params) {
+            String trainType = params.getTrainType() == null || params.getTrainType().isBlank()
+                    ? null : CityDictionary.normalize(params.getTrainType());
+            return new Key(
+                    CityDictionary.normalize(params.getDepartureCity()),
+                    CityDictionary.normalize(params.getArrivalCity()),
+                    params.getDepartureTime() == null ? -1 : ConnectionCatalog.secondOfDay(params.getDepartureTime()),
+                    params.getArrivalTime() == null ? -1 : ConnectionCatalog.secondOfDay(params.getArrivalTime()),
+                    trainType,
+                    ConnectionCatalog.queryDays(params),
+                    Math.max(params.getFirstClassRate(), 0.0),
+                    Math.max(params.getSecondClassRate(), 0.0));
+        }
+    }
+
+    // Cached result lists, never handed out directly
+    private static class Entry {
+        List<TripCandidate> direct;
+        List<TripCandidate> indirect;
+
+        Entry(List<TripCandidate> direct, List<TripCandidate> indirect) {
+            this.direct = direct;
+            this.indirect = indirect;
+        }
+    }
+
+    private ConnectionCatalog catalog;
+    private int catalogVersion;
+    private Map<Key, Entry> entries;
+    private long hits;
+    private long misses;
+
+    public SearchResultCache(ConnectionCatalog catalog, int capacity) {
+        this.catalog = catalog;
+        this.catalogVersion = catalog.getVersion();
+        // Access-ordered LinkedHashMap: the eldest entry is the least recently used
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public SearchResultCache(ConnectionCatalog catalog) {
+        this(catalog, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Returns a fresh SearchResult for the key, marked isFromCache, or null (counted as a miss) if not cached
+     */
+    public synchronized SearchResult get(Key key) {
+        dropIfStale();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        SearchResult result = new SearchResult(catalog, copy(entry.direct), copy(entry.indirect));
+        result.markFromCache();
+        return result;
+    }
+
+    /**
+     * Stores the candidates of a freshly computed result
+     */
+    public synchronized void put(Key key, SearchResult result) {
+        dropIfStale();
+        entries.put(key, new Entry(copy(result.getDirectCandidates()), copy(result.getIndirectCandidates())));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    // The catalog was reloaded since these results were computed
+    private void dropIfStale() {
+        if (catalogVersion != catalog.getVersion()) {
+            entries.clear();
+            catalogVersion = catalog.getVersion();
+        }
+    }
+
+    private static List<TripCandidate> copy(List<TripCandidate> candidates) {
+        List<TripCandidate> copies = new ArrayList<>(candidates.size());
+        for (TripCandidate candidate : candidates) {
+            copies.add(candidate.copy());
+        }
+        return copies;
+    }
+}
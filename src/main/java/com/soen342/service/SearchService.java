@@ -1,9 +1,9 @@
 package com.soen342.service;
 
+import java.util.ArrayList;
 import java.util.List;
 
 
-import com.soen342.domain.Trip;
 import com.soen342.domain.Search;
 import com.soen342.domain.Parameters;
 import com.soen342.domain.Connection;
@@ -12,14 +12,235 @@ public class SearchService {
 
     private ConnectionCatalog connectionCatalog;
 
+    // Results of searchTrips / searchTripsParallel by normalized parameters (null = no caching)
+    private SearchResultCache cache;
+
+    // Built on first use and rebuilt when the catalog is reloaded
+    private RaptorRouter raptorRouter;
+
     public SearchService(ConnectionCatalog connectionCatalog) {
+        this(connectionCatalog, new SearchResultCache(connectionCatalog));
+    }
+
+    public SearchService(ConnectionCatalog connectionCatalog, SearchResultCache cache) {
         this.connectionCatalog = connectionCatalog;
+        this.cache = cache;
+    }
+
+    public SearchResultCache getCache() {
+        return cache;
     }
 
     public SearchResult searchTrips(Search search) {
+        return searchTrips(search, SearchBudget.unlimited());
+    }
+
+    /**
+     * Same as searchTrips, but the indirect search stops once budget runs out (null = no
+     * limit) and the trips found so far are returned, marked incomplete. Incomplete results
+     * are not cached. A cache hit spends nothing from the budget and is marked isFromCache.
+     */
+    public SearchResult searchTrips(Search search, SearchBudget budget) {
+        if (budget == null) budget = SearchBudget.unlimited();
+        Parameters searchParams = search.getParameters();
+        SearchResultCache.Key key = SearchResultCache.Key.of(searchParams);
+        if (cache != null) {
+            SearchResult cached = cache.get(key);
+            if (cached != null) return cached;
+        }
+
+        // Resolve the cities once; the catalog only compares city IDs from here on
+        int origin = resolveCity(searchParams.getDepartureCity());
+        int destination = resolveCity(searchParams.getArrivalCity());
+
+        // No chain of connections leads there at all: nothing to search
+        if (!connectionCatalog.isReachable(origin, destination, ConnectionCatalog.MAX_INDIRECT_LEGS)) {
+            return new SearchResult(connectionCatalog, new ArrayList<>(), new ArrayList<>());
+        }
+
+        List<TripCandidate> directTrips = connectionCatalog.searchDirect(searchParams, origin, destination);
+        List<TripCandidate> indirectTrips = connectionCatalog.searchIndirect(searchParams, origin, destination, budget);
+        SearchResult result = new SearchResult(connectionCatalog, directTrips, indirectTrips,
+                budget.getExplored(), budget.isExhausted());
+        if (cache != null && !result.isIncomplete()) cache.put(key, result);
+        return result;
+    }
+
+    /**
+     * Same as searchTrips, but the indirect search is split across cores by first leg.
+     * Worth it for large hub origins; results and their order match searchTrips.
+     */
+    public SearchResult searchTripsParallel(Search search) {
+        Parameters searchParams = search.getParameters();
+        SearchResultCache.Key key = SearchResultCache.Key.of(searchParams);
+        if (cache != null) {
+            SearchResult cached = cache.get(key);
+            if (cached != null) return cached;
+        }
+        int origin = resolveCity(searchParams.getDepartureCity());
+        int destination = resolveCity(searchParams.getArrivalCity());
+
+        List<TripCandidate> directTrips = connectionCatalog.searchDirect(searchParams, origin, destination);
+        List<TripCandidate> indirectTrips = connectionCatalog.searchIndirectParallel(searchParams, origin, destination);
+        SearchResult result = new SearchResult(connectionCatalog, directTrips, indirectTrips);
+        if (cache != null) cache.put(key, result);
+        return result;
+    }
+
+    /**
+     * Same trips as searchTrips, with the indirect part found by a bidirectional
+     * (meet-in-the-middle) search; cheaper on dense networks where most 2-hop prefixes
+     * never reach the destination. Results are not cached and their order may differ.
+     */
+    public SearchResult searchTripsBidirectional(Search search) {
+        Parameters searchParams = search.getParameters();
+        int origin = resolveCity(searchParams.getDepartureCity());
+        int destination = resolveCity(searchParams.getArrivalCity());
+
+        List<TripCandidate> directTrips = connectionCatalog.searchDirect(searchParams, origin, destination);
+        List<TripCandidate> indirectTrips = connectionCatalog.searchIndirectBidirectional(searchParams, origin, destination);
+        return new SearchResult(connectionCatalog, directTrips, indirectTrips);
+    }
+
+    /**
+     * Earliest-arrival search with the connection scan router, allowing up to maxTransfers changes.
+     * Returns the best journey for each day the search may start on.
+     */
+    public SearchResult searchEarliestArrival(Search search, int maxTransfers) {
         Parameters searchParams = search.getParameters();
-        List<Trip> directTrips = connectionCatalog.searchDirect(searchParams);
-        List<Trip> indirectTrips = connectionCatalog.searchIndirect(searchParams);
-        return new SearchResult(directTrips, indirectTrips);
+        int origin = resolveCity(searchParams.getDepartureCity());
+        int destination = resolveCity(searchParams.getArrivalCity());
+
+        List<TripCandidate> journeys = new ConnectionScanRouter(connectionCatalog)
+                .search(searchParams, origin, destination, maxTransfers);
+        return splitByLegs(journeys);
+    }
+
+    public SearchResult searchEarliestArrival(Search search) {
+        return searchEarliestArrival(search, ConnectionScanRouter.DEFAULT_MAX_TRANSFERS);
+    }
+
+    /**
+     * Round-based search: for each start day, the fastest journey with 0, 1, ..., maxTransfers
+     * changes, keeping only those that beat every journey with fewer changes.
+     */
+    public SearchResult searchByTransfers(Search search, int maxTransfers) {
+        Parameters searchParams = search.getParameters();
+        int origin = resolveCity(searchParams.getDepartureCity());
+        int destination = resolveCity(searchParams.getArrivalCity());
+
+        List<TripCandidate> journeys = getRaptorRouter().search(searchParams, origin, destination, maxTransfers);
+        return splitByLegs(journeys);
+    }
+
+    public SearchResult searchByTransfers(Search search) {
+        return searchByTransfers(search, RaptorRouter.DEFAULT_MAX_TRANSFERS);
+    }
+
+    /**
+     * Returns only the trips not dominated on (elapsed time, fare, number of legs),
+     * using the first- or second-class fare, with up to maxLegs legs.
+     */
+    public SearchResult searchPareto(Search search, boolean firstClass, int maxLegs) {
+        Parameters searchParams = search.getParameters();
+        int origin = resolveCity(searchParams.getDepartureCity());
+        int destination = resolveCity(searchParams.getArrivalCity());
+
+        List<TripCandidate> trips = new ParetoSearch(connectionCatalog, firstClass, maxLegs)
+                .search(searchParams, origin, destination);
+        return splitByLegs(trips);
+    }
+
+    public SearchResult searchPareto(Search search, boolean firstClass) {
+        return searchPareto(search, firstClass, ParetoSearch.DEFAULT_MAX_LEGS);
+    }
+
+    /**
+     * Returns only the k best trips under the given order (direct and indirect combined),
+     * pruning partial itineraries that can no longer make the top k
+     */
+    public SearchResult searchTopK(Search search, int k, TripOrder order) {
+        Parameters searchParams = search.getParameters();
+        int origin = resolveCity(searchParams.getDepartureCity());
+        int destination = resolveCity(searchParams.getArrivalCity());
+
+        List<TripCandidate> trips = new TopKSearch(connectionCatalog, k, order).search(searchParams, origin, destination);
+        return splitByLegs(trips);
+    }
+
+    /**
+     * Same trips as searchTrips, with the indirect part evaluated only along the precomputed
+     * transfer patterns. If the patterns were built for an earlier load of the catalog, the
+     * result comes from searchTrips instead and is marked isFallback. Results are not cached
+     * and their order may differ.
+     */
+    public SearchResult searchTripsByPatterns(Search search, TransferPatterns patterns) {
+        if (patterns.getCatalogVersion() != connectionCatalog.getVersion()) {
+            SearchResult result = searchTrips(search);
+            result.markFallback();
+            return result;
+        }
+        Parameters searchParams = search.getParameters();
+        int origin = resolveCity(searchParams.getDepartureCity());
+        int destination = resolveCity(searchParams.getArrivalCity());
+
+        List<TripCandidate> directTrips = connectionCatalog.searchDirect(searchParams, origin, destination);
+        List<TripCandidate> indirectTrips = patterns.search(searchParams, origin, destination);
+        return new SearchResult(connectionCatalog, directTrips, indirectTrips);
+    }
+
+    /**
+     * Same trips and order as searchTrips, with the indirect walk limited to the cities the
+     * catalog's region partition finds between the two cities. Results are not cached.
+     */
+    public SearchResult searchTripsPartitioned(Search search) {
+        Parameters searchParams = search.getParameters();
+        int origin = resolveCity(searchParams.getDepartureCity());
+        int destination = resolveCity(searchParams.getArrivalCity());
+
+        List<TripCandidate> directTrips = connectionCatalog.searchDirect(searchParams, origin, destination);
+        List<TripCandidate> indirectTrips = connectionCatalog.searchIndirectPartitioned(searchParams, origin, destination);
+        return new SearchResult(connectionCatalog, directTrips, indirectTrips);
+    }
+
+    /**
+     * Returns the limit trips with the least riding time (direct and indirect combined, 0 = all),
+     * found by the catalog's A* search mode
+     */
+    public SearchResult searchFastest(Search search, int limit) {
+        Parameters searchParams = search.getParameters();
+        int origin = resolveCity(searchParams.getDepartureCity());
+        int destination = resolveCity(searchParams.getArrivalCity());
+
+        return splitByLegs(connectionCatalog.searchAStar(searchParams, origin, destination, limit));
+    }
+
+    private RaptorRouter getRaptorRouter() {
+        if (raptorRouter == null || raptorRouter.getCatalogVersion() != connectionCatalog.getVersion()) {
+            raptorRouter = new RaptorRouter(connectionCatalog);
+        }
+        return raptorRouter;
+    }
+
+    // Puts single-leg candidates in the direct list and the rest in the indirect list
+    private SearchResult splitByLegs(List<TripCandidate> candidates) {
+        List<TripCandidate> direct = new ArrayList<>();
+        List<TripCandidate> indirect = new ArrayList<>();
+        for (TripCandidate candidate : candidates) {
+            if (candidate.getNumberOfConnections() == 1) {
+                direct.add(candidate);
+            } else {
+                indirect.add(candidate);
+            }
+        }
+        return new SearchResult(connectionCatalog, direct, indirect);
+    }
+
+    /**
+     * Looks up a user-entered city name (case-insensitive)
+     * Returns CityDictionary.UNKNOWN if the catalog has no such city
+     */
+    public int resolveCity(String city) {
+        return connectionCatalog.getCityDictionary().idOf(city);
     }
 }
@@ -0,0 +1,77 @@
+package com.soen342.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * Returns only the k best trips of a search under a TripOrder.
+ *
+ * Candidates stream into a bounded heap whose head is the current k-th best, so memory
+ * stays O(k). For ascending orders the metric only grows as legs are added, so once the
+ * heap is full any partial itinerary that is not already better than the k-th best is
+ * abandoned without being expanded further.
+ *
+ * Covers the same trips as searchDirect + searchIndirect.
+ */
+public class TopKSearch {
+
+    private ConnectionCatalog catalog;
+    private int k;
+    private TripOrder order;
+
+    public TopKSearch(ConnectionCatalog catalog, int k, TripOrder order) {
+        if (k <= 0) throw new IllegalArgumentException("k must be positive: " + k);
+        this.catalog = catalog;
+        this.k = k;
+        this.order = order;
+    }
+
+    /**
+     * Returns at most k trips, best first
+     */
+    public List<TripCandidate> search(Parameters searchParams, int origin, int destination) {
+        // Worst of the kept trips at the head, so it can be replaced in O(log k)
+        PriorityQueue<TripCandidate> heap = new PriorityQueue<>(k + 1, order.comparator().reversed());
+
+        for (TripCandidate direct : catalog.searchDirect(searchParams, origin, destination)) {
+            if (beatsWorst(heap, order.metric(direct))) keep(heap, direct);
+        }
+
+        if (origin != CityDictionary.UNKNOWN && destination != CityDictionary.UNKNOWN) {
+            ItineraryWalker walker = catalog.indirectWalker(origin, destination,
+                    SearchFilters.of(searchParams, catalog.getTable()));
+
+            walker.walk(new ItineraryWalker.Visitor() {
+                @Override
+                public void accept(int[] rows, int legs, int travelMinutes, int elapsedMinutes, double fcRate, double scRate) {
+                    if (!beatsWorst(heap, order.metric(travelMinutes, fcRate, scRate))) return;
+                    keep(heap, new TripCandidate(Arrays.copyOf(rows, legs), travelMinutes, elapsedMinutes, fcRate, scRate));
+                }
+
+                @Override
+                public boolean shouldExtend(int legs, int travelMinutes, int elapsedMinutes, double fcRate, double scRate) {
+                    // Descending metrics can still improve with more legs, so only ascending orders prune
+                    return !order.isAscending() || beatsWorst(heap, order.metric(travelMinutes, fcRate, scRate));
+                }
+            });
+        }
+
+        List<TripCandidate> best = new ArrayList<>(heap);
+        best.sort(order.comparator());
+        return best;
+    }
+
+    // True while the heap has room or the metric ranks strictly before the current k-th best
+    private boolean beatsWorst(PriorityQueue<TripCandidate> heap, double metric) {
+        return heap.size() < k || order.compareMetrics(metric, order.metric(heap.peek())) < 0;
+    }
+
+    private void keep(PriorityQueue<TripCandidate> heap, TripCandidate trip) {
+        heap.add(trip);
+        if (heap.size() > k) heap.poll();
+    }
+}
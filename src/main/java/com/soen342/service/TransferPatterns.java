@@ -0,0 +1,259 @@
+package com.soen342.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * Transfer patterns: for every origin and destination, the sequences of transfer cities
+ * that some valid indirect itinerary (2 to MAX_INDIRECT_LEGS legs) passes through on some
+ * day. They are computed once, offline, and can be saved to and loaded from a file.
+ *
+ * A query then only looks up the direct connections between consecutive cities of each
+ * stored pattern and joins them, checking layovers, days and the search filters. Because
+ * every pattern a valid itinerary can follow is kept (not only the fastest ones), the
+ * trips found are exactly those of searchIndirect.
+ */
+public class TransferPatterns {
+
+    private static final String HEADER = "# transfer patterns v2";
+    private static final int[] NO_ROWS = new int[0];
+
+    private ConnectionCatalog catalog;
+    private int catalogVersion;
+    private int cityCount;
+    private int patternCount;
+
+    // (origin, destination) -> transfer-city sequences, one int[] per pattern
+    private Map<Long, List<int[]>> patterns = new HashMap<>();
+
+    // (from, to) -> rows of the direct connections between them, earliest departure first
+    private Map<Long, int[]> connectionsBetween = new HashMap<>();
+
+    private TransferPatterns(ConnectionCatalog catalog) {
+        this.catalog = catalog;
+        this.catalogVersion = catalog.getVersion();
+        this.cityCount = catalog.getCityDictionary().size();
+
+        Map<Long, IntList> pairs = new HashMap<>();
+        ConnectionTable table = catalog.getTable();
+        for (int row : catalog.getConnectionsByDeparture()) {
+            pairs.computeIfAbsent(key(table.departureCity(row), table.arrivalCity(row)), k -> new IntList()).add(row);
+        }
+        for (Map.Entry<Long, IntList> entry : pairs.entrySet()) {
+            connectionsBetween.put(entry.getKey(), entry.getValue().toArray());
+        }
+    }
+
+    /**
+     * Preprocessing: one depth-first walk per origin over the transfer table, on all days,
+     * recording the transfer cities of every itinerary reached
+     */
+    public static TransferPatterns build(ConnectionCatalog catalog) {
+        TransferPatterns result = new TransferPatterns(catalog);
+        ConnectionTable table = catalog.getTable();
+        int[] cityPath = new int[ConnectionCatalog.MAX_INDIRECT_LEGS + 1];
+        boolean[] visited = new boolean[result.cityCount];
+
+        for (int origin = 0; origin < result.cityCount; origin++) {
+            Map<Integer, Set<List<Integer>>> found = new HashMap<>();
+            cityPath[0] = origin;
+            visited[origin] = true;
+            for (int row : catalog.getDeparturesFrom(origin)) {
+                int to = table.arrivalCity(row);
+                if (visited[to]) continue;
+                visited[to] = true;
+                cityPath[1] = to;
+                collect(catalog, row, table.dayMask(row), 1, cityPath, visited, found);
+                visited[to] = false;
+            }
+            visited[origin] = false;
+
+            for (Map.Entry<Integer, Set<List<Integer>>> entry : found.entrySet()) {
+                for (List<Integer> vias : entry.getValue()) {
+                    result.add(origin, entry.getKey(), vias.stream().mapToInt(Integer::intValue).toArray());
+                }
+            }
+        }
+        return result;
+    }
+
+    // Extends the itinerary ending in row (legs long), recording each city it reaches after a transfer
+    private static void collect(ConnectionCatalog catalog, int row, int days, int legs, int[] cityPath,
+                                boolean[] visited, Map<Integer, Set<List<Integer>>> found) {
+        if (legs == ConnectionCatalog.MAX_INDIRECT_LEGS) return;
+        ConnectionTable table = catalog.getTable();
+        TransferTable transfers = catalog.getTransfers();
+
+        for (int t = transfers.start(row); t < transfers.end(row); t++) {
+            int next = transfers.target(t);
+            int to = table.arrivalCity(next);
+            if (visited[to]) continue;
+            int nextDays = catalog.connectingDays(row, days, next);
+            if (nextDays == DayMask.NONE) continue;
+
+            cityPath[legs + 1] = to;
+            List<Integer> vias = new ArrayList<>(legs);
+            for (int i = 1; i <= legs; i++) vias.add(cityPath[i]);
+            found.computeIfAbsent(to, k -> new HashSet<>()).add(vias);
+
+            visited[to] = true;
+            collect(catalog, next, nextDays, legs + 1, cityPath, visited, found);
+            visited[to] = false;
+        }
+    }
+
+    private void add(int origin, int destination, int[] vias) {
+        patterns.computeIfAbsent(key(origin, destination), k -> new ArrayList<>()).add(vias);
+        patternCount++;
+    }
+
+    private long key(int from, int to) {
+        return (long) from * cityCount + to;
+    }
+
+    // Catalog version the patterns were built for; they refer to city IDs and rows of that version
+    public int getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    // Total number of stored patterns
+    public int size() {
+        return patternCount;
+    }
+
+    // Transfer-city sequences stored for the pair (empty if none)
+    public List<int[]> getPatterns(int origin, int destination) {
+        List<int[]> found = patterns.get(key(origin, destination));
+        return found == null ? new ArrayList<>() : found;
+    }
+
+    /**
+     * Same trips as ConnectionCatalog.searchIndirect, found by joining the direct
+     * connections along each stored pattern. Order may differ.
+     */
+    public List<TripCandidate> search(Parameters searchParams, int origin, int destination) {
+        List<TripCandidate> result = new ArrayList<>();
+        if (origin == CityDictionary.UNKNOWN || destination == CityDictionary.UNKNOWN) return result;
+        SearchFilters filters = SearchFilters.of(searchParams, catalog.getTable());
+        if (filters.matchesNothing()) return result;
+
+        ConnectionTable table = catalog.getTable();
+        int[] rows = new int[ConnectionCatalog.MAX_INDIRECT_LEGS];
+        for (int[] vias : getPatterns(origin, destination)) {
+            int[] cityPath = new int[vias.length + 2];
+            cityPath[0] = origin;
+            System.arraycopy(vias, 0, cityPath, 1, vias.length);
+            cityPath[cityPath.length - 1] = destination;
+
+            for (int row : connections(origin, cityPath[1])) {
+                if (!filters.departsInTime(table, row) || !filters.trainTypeMatches(table, row)) continue;
+                int days = filters.days & table.dayMask(row);
+                if (days == DayMask.NONE) continue;
+                rows[0] = row;
+                join(filters, cityPath, rows, 1, days, result);
+            }
+        }
+        return result;
+    }
+
+    // Picks leg number legs + 1 among the direct connections between the pattern's next two cities
+    private void join(SearchFilters filters, int[] cityPath, int[] rows, int legs, int days, List<TripCandidate> result) {
+        ConnectionTable table = catalog.getTable();
+        int last = rows[legs - 1];
+        for (int row : connections(cityPath[legs], cityPath[legs + 1])) {
+            if (!ConnectionCatalog.isLayoverValid(table.arrivalMinute(last), table.departureMinute(row))) continue;
+            if (!filters.trainTypeMatches(table, row)) continue;
+            int nextDays = catalog.connectingDays(last, days, row);
+            if (nextDays == DayMask.NONE) continue;
+            rows[legs] = row;
+
+            if (legs + 1 < cityPath.length - 1) {
+                join(filters, cityPath, rows, legs + 1, nextDays, result);
+                continue;
+            }
+            TripCandidate trip = catalog.candidate(Arrays.copyOf(rows, legs + 1));
+            if (!filters.acceptsTrip(table.departureMinute(rows[0]), trip.getElapsedMinutes(),
+                    trip.getTotalFCRate(), trip.getTotalSCRate())) continue;
+            result.add(trip);
+        }
+    }
+
+    private static String header(ConnectionCatalog catalog) {
+        return HEADER + "\t" + catalog.getTable().checksum() + "\t" + ConnectionCatalog.indexRulesChecksum();
+    }
+
+    private int[] connections(int from, int to) {
+        int[] rows = connectionsBetween.get(key(from, to));
+        return rows == null ? NO_ROWS : rows;
+    }
+
+    /**
+     * Writes the patterns as text, one per line (origin, destination, transfer cities,
+     * tab-separated), after a header with the checksums of the connections and of the
+     * transfer rules they were built from
+     */
+    public void save(String filePath) {
+        CityDictionary cities = catalog.getCityDictionary();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, StandardCharsets.UTF_8))) {
+            writer.write(header(catalog));
+            writer.newLine();
+            for (Map.Entry<Long, List<int[]>> entry : patterns.entrySet()) {
+                String pair = cities.nameOf((int) (entry.getKey() / cityCount)) + "\t"
+                        + cities.nameOf((int) (entry.getKey() % cityCount));
+                for (int[] vias : entry.getValue()) {
+                    StringBuilder line = new StringBuilder(pair);
+                    for (int via : vias) line.append('\t').append(cities.nameOf(via));
+                    writer.write(line.toString());
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving transfer patterns: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads patterns saved by save(). Returns null if the file is missing, unreadable,
+     * or was built from different connections or transfer rules than the catalog now has.
+     */
+    public static TransferPatterns load(ConnectionCatalog catalog, String filePath) {
+        if (!new File(filePath).isFile()) return null;
+        CityDictionary cities = catalog.getCityDictionary();
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null || !header.equals(header(catalog))) return null;
+
+            TransferPatterns result = new TransferPatterns(catalog);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t");
+                if (fields.length < 3) return null;
+                int[] ids = new int[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    ids[i] = cities.idOf(fields[i]);
+                    if (ids[i] == CityDictionary.UNKNOWN) return null;
+                }
+                result.add(ids[0], ids[1], Arrays.copyOfRange(ids, 2, ids.length));
+            }
+            return result;
+        } catch (IOException e) {
+            System.err.println("Error loading transfer patterns: " + e.getMessage());
+            return null;
+        }
+    }
+}
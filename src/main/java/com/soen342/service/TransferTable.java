@@ -0,0 +1,82 @@
+package com.soen342.service;
+
+/**
+ * Precomputed transfers: for every connection, the connections leaving its arrival city
+ * that make a valid layover (ConnectionCatalog.isLayoverValid). Stored in compressed
+ * sparse row form: the transfers of row r are targets[offsets[r] .. offsets[r + 1]).
+ */
+public class TransferTable {
+
+    private int[] offsets;
+    private int[] targets;
+
+    public TransferTable(int[] offsets, int[] targets) {
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Builds the table from the catalog's columns. Each city's departures are sorted by time,
+     * so the layover window after an arrival is found by binary search plus a short scan
+     * (two scans when the window runs past midnight).
+     */
+    public static TransferTable build(ConnectionCatalog catalog) {
+        ConnectionTable table = catalog.getTable();
+        int n = table.size();
+        int[] offsets = new int[n + 1];
+        IntList targets = new IntList(Math.max(n, 1));
+
+        for (int row = 0; row < n; row++) {
+            int city = table.arrivalCity(row);
+            int arrivalMinute = table.arrivalMinute(row);
+            int from = arrivalMinute + ConnectionCatalog.minLayoverMinutes(arrivalMinute);
+            int until = arrivalMinute + ConnectionCatalog.maxLayoverMinutes(arrivalMinute);
+
+            // Window in today's minutes, then (if it wraps) the part after midnight
+            addDepartures(catalog, targets, city, from, Math.min(until, ConnectionTable.MINUTES_PER_DAY - 1));
+            if (until >= ConnectionTable.MINUTES_PER_DAY) {
+                addDepartures(catalog, targets, city,
+                        Math.max(from - ConnectionTable.MINUTES_PER_DAY, 0), until - ConnectionTable.MINUTES_PER_DAY);
+            }
+            offsets[row + 1] = targets.size();
+        }
+        return new TransferTable(offsets, targets.toArray());
+    }
+
+    // Adds the city's departures between the two minutes of the day (inclusive)
+    private static void addDepartures(ConnectionCatalog catalog, IntList targets, int city, int fromMinute, int untilMinute) {
+        ConnectionTable table = catalog.getTable();
+        int[] departures = catalog.getDeparturesFrom(city);
+        for (int i = catalog.firstDepartureAtOrAfter(city, fromMinute);
+             i < departures.length && table.departureMinute(departures[i]) <= untilMinute; i++) {
+            targets.add(departures[i]);
+        }
+    }
+
+    // First index (into target) of the transfers from row
+    public int start(int row) {
+        return offsets[row];
+    }
+
+    // One past the last index of the transfers from row
+    public int end(int row) {
+        return offsets[row + 1];
+    }
+
+    public int target(int index) {
+        return targets[index];
+    }
+
+    // Total number of valid transfer pairs
+    public int size() {
+        return targets.length;
+    }
+
+    int[] getOffsets() {
+        return offsets;
+    }
+
+    int[] getTargets() {
+        return targets;
+    }
+}
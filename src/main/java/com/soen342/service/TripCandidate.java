@@ -0,0 +1,82 @@
+package com.soen342.service;
+
+import java.util.Arrays;
+
+import com.soen342.domain.Trip;
+
+/**
+ * Lightweight search result: the catalog rows of an itinerary plus its precomputed totals.
+ * The matching Trip (and its TRIP#### ID) is only created when the candidate is shown or booked.
+ */
+public class TripCandidate {
+
+    private int[] rows;
+    private int travelMinutes;   // sum of the legs' travel times, layovers excluded
+    private int elapsedMinutes;  // first departure to last arrival, layovers included
+    private double totalFCRate;
+    private double totalSCRate;
+    private Trip trip;           // built on demand by ConnectionCatalog.toTrip
+
+    public TripCandidate(int[] rows, int travelMinutes, int elapsedMinutes, double totalFCRate, double totalSCRate) {
+        this.rows = rows;
+        this.travelMinutes = travelMinutes;
+        this.elapsedMinutes = elapsedMinutes;
+        this.totalFCRate = totalFCRate;
+        this.totalSCRate = totalSCRate;
+    }
+
+    public int[] getRows() {
+        return rows;
+    }
+
+    public int getTravelMinutes() {
+        return travelMinutes;
+    }
+
+    public int getElapsedMinutes() {
+        return elapsedMinutes;
+    }
+
+    public double getTotalFCRate() {
+        return totalFCRate;
+    }
+
+    public double getTotalSCRate() {
+        return totalSCRate;
+    }
+
+    public int getNumberOfConnections() {
+        return rows.length;
+    }
+
+    /**
+     * Returns a candidate for the same itinerary that has no Trip (or trip ID) yet
+     */
+    public TripCandidate copy() {
+        return new TripCandidate(rows, travelMinutes, elapsedMinutes, totalFCRate, totalSCRate);
+    }
+
+    /**
+     * Returns the Trip built for this candidate, or null if it has not been materialized yet
+     */
+    public Trip getTrip() {
+        return trip;
+    }
+
+    void setTrip(Trip trip) {
+        this.trip = trip;
+    }
+
+    // Same itinerary = same rows in the same order
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TripCandidate)) return false;
+        return Arrays.equals(rows, ((TripCandidate) o).rows);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(rows);
+    }
+}
@@ -0,0 +1,49 @@
+package com.soen342.service;
+
+import java.util.Comparator;
+
+/**
+ * The ways search results can be ranked.
+ * Duration is the sum of the legs' travel times; price ascending ranks by the second-class
+ * total and price descending by the first-class total, as the results screen always has.
+ */
+public enum TripOrder {
+    DURATION_ASC,
+    DURATION_DESC,
+    PRICE_ASC,
+    PRICE_DESC;
+
+    public boolean isAscending() {
+        return this == DURATION_ASC || this == PRICE_ASC;
+    }
+
+    /**
+     * The value this order ranks on, from a trip's (or partial trip's) totals
+     */
+    public double metric(int travelMinutes, double totalFCRate, double totalSCRate) {
+        switch (this) {
+            case DURATION_ASC:
+            case DURATION_DESC:
+                return travelMinutes;
+            case PRICE_ASC:
+                return totalSCRate;
+            default:
+                return totalFCRate;
+        }
+    }
+
+    public double metric(TripCandidate trip) {
+        return metric(trip.getTravelMinutes(), trip.getTotalFCRate(), trip.getTotalSCRate());
+    }
+
+    /**
+     * Negative if metric a ranks before metric b under this order
+     */
+    public int compareMetrics(double a, double b) {
+        return isAscending() ? Double.compare(a, b) : Double.compare(b, a);
+    }
+
+    public Comparator<TripCandidate> comparator() {
+        return (x, y) -> compareMetrics(metric(x), metric(y));
+    }
+}
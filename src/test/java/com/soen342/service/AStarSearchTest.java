@@ -0,0 +1,75 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * Without a limit, A* must return exactly the trips of searchDirect + searchIndirect,
+ * least riding time first
+ */
+public class AStarSearchTest {
+
+    private ConnectionCatalog catalog;
+
+    @Before
+    public void setUp() {
+        catalog = TestNetwork.load();
+    }
+
+    private void assertSameTrips(Parameters p, int origin, int destination) {
+        List<TripCandidate> expected = new ArrayList<>(catalog.searchDirect(p, origin, destination));
+        expected.addAll(catalog.searchIndirect(p, origin, destination));
+        List<TripCandidate> found = catalog.searchAStar(p, origin, destination, 0);
+
+        assertEquals(expected.size(), found.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(found));
+        for (int i = 1; i < found.size(); i++) {
+            assertTrue(found.get(i - 1).getTravelMinutes() <= found.get(i).getTravelMinutes());
+        }
+        assertEquals(found.subList(0, Math.min(3, found.size())), catalog.searchAStar(p, origin, destination, 3));
+    }
+
+    @Test
+    public void matchesDirectPlusIndirect() {
+        TestNetwork.forEachQuery(catalog, this::assertSameTrips);
+    }
+
+    @Test
+    public void overnightDirectTrainIsTreatedTheSameWay() {
+        // R00082 Amsterdam -> Hamburg leaves at 18:00 and arrives at 05:53 the next day
+        ConnectionTable table = catalog.getTable();
+        int row = 0;
+        while (!table.routeId(row).equals("R00082")) row++;
+        int origin = table.departureCity(row);
+        int destination = table.arrivalCity(row);
+        assertTrue(table.arrivalMinute(row) < table.departureMinute(row));
+
+        Parameters any = TestNetwork.ANY.between(catalog, origin, destination);
+        assertTrue(usesRow(catalog.searchDirect(any, origin, destination), row));
+        assertTrue(usesRow(catalog.searchAStar(any, origin, destination, 0), row));
+        assertSameTrips(any, origin, destination);
+
+        // Arriving at 05:53 the next day is later than 06:00 on the day of departure
+        Parameters early = TestNetwork.ANY.arrivingBy("06:00:00").between(catalog, origin, destination);
+        assertFalse(usesRow(catalog.searchDirect(early, origin, destination), row));
+        assertFalse(usesRow(catalog.searchAStar(early, origin, destination, 0), row));
+        assertSameTrips(early, origin, destination);
+    }
+
+    private static boolean usesRow(List<TripCandidate> trips, int row) {
+        for (TripCandidate trip : trips) {
+            if (trip.getRows().length == 1 && trip.getRows()[0] == row) return true;
+        }
+        return false;
+    }
+}
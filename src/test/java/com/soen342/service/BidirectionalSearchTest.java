@@ -0,0 +1,36 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Meeting in the middle must find exactly the trips searchIndirect finds
+ */
+public class BidirectionalSearchTest {
+
+    private ConnectionCatalog catalog;
+
+    @Before
+    public void setUp() {
+        catalog = TestNetwork.load();
+    }
+
+    @Test
+    public void matchesSearchIndirect() {
+        int[] trips = new int[1];
+        TestNetwork.forEachQuery(catalog, (p, origin, destination) -> {
+            List<TripCandidate> expected = catalog.searchIndirect(p, origin, destination);
+            List<TripCandidate> found = catalog.searchIndirectBidirectional(p, origin, destination);
+            assertEquals(expected.size(), found.size());
+            assertEquals(new HashSet<>(expected), new HashSet<>(found));
+            trips[0] += expected.size();
+        });
+        assertTrue(trips[0] > 0);
+    }
+}
@@ -0,0 +1,114 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * A catalog read back from its snapshot must equal the one that wrote it, and a snapshot
+ * that does not match its CSV file or is damaged must be rejected without touching the catalog
+ */
+public class CatalogSnapshotTest {
+
+    private ConnectionCatalog catalog;
+    private Path csv;
+    private Path snapshot;
+
+    @Before
+    public void setUp() throws IOException {
+        csv = File.createTempFile("network", ".csv").toPath();
+        snapshot = File.createTempFile("catalog", ".snapshot").toPath();
+        csv.toFile().deleteOnExit();
+        snapshot.toFile().deleteOnExit();
+        Files.copy(Paths.get(TestNetwork.CSV_PATH), csv, StandardCopyOption.REPLACE_EXISTING);
+
+        catalog = new ConnectionCatalog();
+        catalog.loadFromFile(csv.toString());
+        CatalogSnapshot.write(catalog, csv.toString(), snapshot.toString());
+    }
+
+    @Test
+    public void roundTripRestoresTheCatalog() {
+        ConnectionCatalog restored = new ConnectionCatalog();
+        assertTrue(CatalogSnapshot.read(restored, csv.toString(), snapshot.toString()));
+
+        int n = catalog.getCityDictionary().size();
+        assertEquals(n, restored.getCityDictionary().size());
+        for (int c = 0; c < n; c++) {
+            assertEquals(catalog.getCityDictionary().nameOf(c), restored.getCityDictionary().nameOf(c));
+            assertArrayEquals(catalog.getDeparturesFrom(c), restored.getDeparturesFrom(c));
+            assertArrayEquals(catalog.getArrivalsAt(c), restored.getArrivalsAt(c));
+        }
+        assertEquals(catalog.getTable().checksum(), restored.getTable().checksum());
+        for (int row = 0; row < catalog.getTable().size(); row++) {
+            assertEquals(catalog.getConnection(row).toString(), restored.getConnection(row).toString());
+        }
+        assertArrayEquals(catalog.getConnectionsByDeparture(), restored.getConnectionsByDeparture());
+        assertArrayEquals(catalog.getTransfers().getOffsets(), restored.getTransfers().getOffsets());
+        assertArrayEquals(catalog.getTransfers().getTargets(), restored.getTransfers().getTargets());
+        assertArrayEquals(catalog.getLowerBounds().getMinMinutes(), restored.getLowerBounds().getMinMinutes());
+        assertArrayEquals(catalog.getLowerBounds().getMinFCRates(), restored.getLowerBounds().getMinFCRates(), 0);
+        assertArrayEquals(catalog.getLowerBounds().getMinSCRates(), restored.getLowerBounds().getMinSCRates(), 0);
+        assertArrayEquals(catalog.getLowerBounds().getMinLegs(), restored.getLowerBounds().getMinLegs());
+
+        for (int origin = 0; origin < n; origin += 7) {
+            for (int destination = 0; destination < n; destination += 3) {
+                CityDictionary cities = catalog.getCityDictionary();
+                Parameters p = new Parameters(cities.nameOf(origin), cities.nameOf(destination), null, null, null, null, 0, 0);
+                assertEquals(catalog.searchDirect(p, origin, destination), restored.searchDirect(p, origin, destination));
+                assertEquals(catalog.searchIndirect(p, origin, destination), restored.searchIndirect(p, origin, destination));
+            }
+        }
+    }
+
+    @Test
+    public void changedCsvIsNotServedFromSnapshot() throws IOException {
+        Files.writeString(csv, "R99999,Paris,Lyon,10:00,12:00,TGV,Daily,100,50\n", StandardOpenOption.APPEND);
+        assertFalse(CatalogSnapshot.read(new ConnectionCatalog(), csv.toString(), snapshot.toString()));
+
+        // loadWithSnapshot falls back to the CSV and writes a snapshot that matches it
+        ConnectionCatalog reloaded = new ConnectionCatalog();
+        reloaded.loadWithSnapshot(csv.toString(), snapshot.toString());
+        assertEquals(catalog.getTable().size() + 1, reloaded.getTable().size());
+        assertTrue(CatalogSnapshot.read(new ConnectionCatalog(), csv.toString(), snapshot.toString()));
+    }
+
+    @Test
+    public void damagedSnapshotIsRejectedAndLeavesCatalogAlone() throws IOException {
+        ConnectionCatalog other = new ConnectionCatalog();
+        Path small = File.createTempFile("network", ".csv").toPath();
+        small.toFile().deleteOnExit();
+        Files.writeString(small, "Route ID,From,To,Dep,Arr,Type,Days,FC,SC\nR1,Paris,Lyon,10:00,12:00,TGV,Daily,100,50\n",
+                StandardCharsets.UTF_8);
+        other.loadFromFile(small.toString());
+        long checksum = other.getTable().checksum();
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 5] ^= 1;
+        Files.write(snapshot, bytes);
+        assertFalse(CatalogSnapshot.read(other, csv.toString(), snapshot.toString()));
+        assertEquals(checksum, other.getTable().checksum());
+
+        // A snapshot of another format version (bytes 8-11) is rejected as well
+        bytes[bytes.length - 5] ^= 1;
+        bytes[11]++;
+        Files.write(snapshot, bytes);
+        assertFalse(CatalogSnapshot.read(other, csv.toString(), snapshot.toString()));
+        assertEquals(1, other.getTable().size());
+    }
+}
@@ -0,0 +1,86 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * The Connection Scan router must return, for each start day, the earliest arrival among all
+ * journeys an exhaustive enumeration finds, including overnight legs and trips rolling over
+ * into the next day
+ */
+public class ConnectionScanRouterTest {
+
+    private static final int MAX_LEGS = ConnectionScanRouter.DEFAULT_MAX_TRANSFERS + 1;
+
+    private ConnectionCatalog catalog;
+    private ConnectionScanRouter router;
+
+    @Before
+    public void setUp() {
+        catalog = TestNetwork.load();
+        router = new ConnectionScanRouter(catalog);
+    }
+
+    // Minutes since midnight of the start day at which the trip arrives
+    private int arrivalOf(TripCandidate trip) {
+        return catalog.getTable().departureMinute(trip.getRows()[0]) + trip.getElapsedMinutes();
+    }
+
+    // Runs every sampled query of filter on each start day and returns how many crossed midnight
+    private int assertEarliestArrivals(TestNetwork.Filter filter) {
+        int overnight = 0;
+        for (int origin : TestNetwork.origins(catalog)) {
+            for (int startDay = 0; startDay < 7; startDay++) {
+                TestNetwork.Filter day = filter.running(DayMask.toString(DayMask.of(startDay)));
+                SearchFilters filters = SearchFilters.of(day.between(catalog, origin, origin), catalog.getTable());
+                JourneyEnumerator all = JourneyEnumerator.enumerate(catalog, filters, origin, startDay, MAX_LEGS);
+
+                for (int destination = 0; destination < catalog.getCityDictionary().size(); destination++) {
+                    if (destination == origin) continue;
+                    Parameters p = day.between(catalog, origin, destination);
+                    List<TripCandidate> found = router.search(p, origin, destination, ConnectionScanRouter.DEFAULT_MAX_TRANSFERS);
+                    int earliest = all.earliestArrival(destination, MAX_LEGS);
+                    if (earliest == Integer.MAX_VALUE) {
+                        assertTrue(found.isEmpty());
+                        continue;
+                    }
+                    assertEquals(1, found.size());
+                    TripCandidate trip = found.get(0);
+                    assertNotNull(all.find(destination, trip.getRows()));
+                    assertEquals(earliest, arrivalOf(trip));
+                    if (earliest >= ConnectionTable.MINUTES_PER_DAY) overnight++;
+                }
+            }
+        }
+        return overnight;
+    }
+
+    @Test
+    public void earliestArrivalMatchesEnumeration() {
+        assertTrue(assertEarliestArrivals(TestNetwork.ANY) > 0);
+    }
+
+    @Test
+    public void departureAndArrivalTimeMatchEnumeration() {
+        assertEarliestArrivals(TestNetwork.ANY.departingFrom("07:00:00").arrivingBy("22:00:00"));
+    }
+
+    @Test
+    public void trainTypeMatchesEnumeration() {
+        assertEarliestArrivals(TestNetwork.ANY.on("ICE"));
+    }
+
+    @Test
+    public void rateCeilingMatchesEnumeration() {
+        assertEarliestArrivals(TestNetwork.ANY.firstClassUnder(150));
+        assertEarliestArrivals(TestNetwork.ANY.secondClassUnder(90));
+    }
+}
@@ -0,0 +1,196 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Time;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.soen342.domain.Connection;
+import com.soen342.domain.Parameters;
+
+/**
+ * Loading the catalog from the database and reloading only what changed must give the
+ * same catalog as a full load, and a failed read must leave the catalog as it was
+ */
+public class DatabaseReloadTest {
+
+    private ConnectionCatalog csv;
+    private FakeDatabase db;
+
+    @Before
+    public void setUp() {
+        csv = TestNetwork.load();
+        db = new FakeDatabase(csv);
+    }
+
+    private long fullLoadChecksum() {
+        ConnectionCatalog full = new ConnectionCatalog();
+        assertEquals(db.connections.size(), full.loadFromDatabase(db.connection()));
+        return full.getTable().checksum();
+    }
+
+    private static Connection newConnection(String routeID) {
+        return new Connection(routeID, new Parameters("Paris", "Lyon", Time.valueOf("10:00:00"),
+                Time.valueOf("12:30:00"), "TGV", "Mon, Tue", 100.0, 50.0));
+    }
+
+    @Test
+    public void fullLoadMatchesCsv() {
+        ConnectionCatalog catalog = new ConnectionCatalog();
+        assertEquals(csv.getTable().size(), catalog.loadFromDatabase(db.connection()));
+        assertEquals(csv.getTable().checksum(), catalog.getTable().checksum());
+    }
+
+    @Test
+    public void reloadWithoutChangesReadsNothing() {
+        ConnectionCatalog catalog = new ConnectionCatalog();
+        catalog.loadFromDatabase(db.connection());
+        int version = catalog.getVersion();
+
+        assertEquals(0, catalog.reloadFromDatabase(db.connection()));
+        assertEquals(version, catalog.getVersion());
+    }
+
+    @Test
+    public void incrementalReloadMatchesFullLoad() {
+        ConnectionCatalog catalog = new ConnectionCatalog();
+        catalog.loadFromDatabase(db.connection());
+
+        String updated = csv.getTable().routeId(5);
+        db.insert(newConnection("R99999"));
+        db.updateFirstClassRate(updated, 1.0);
+
+        assertEquals(2, catalog.reloadFromDatabase(db.connection()));
+        assertEquals(fullLoadChecksum(), catalog.getTable().checksum());
+        assertEquals(1.0, catalog.getConnection(5).getParameters().getFirstClassRate(), 0);
+    }
+
+    @Test
+    public void deleteFallsBackToFullLoad() {
+        ConnectionCatalog catalog = new ConnectionCatalog();
+        catalog.loadFromDatabase(db.connection());
+
+        db.delete(csv.getTable().routeId(7));
+        assertEquals(csv.getTable().size() - 1, catalog.reloadFromDatabase(db.connection()));
+        assertEquals(fullLoadChecksum(), catalog.getTable().checksum());
+    }
+
+    @Test
+    public void reloadTrimsAppliedChanges() {
+        ConnectionCatalog catalog = new ConnectionCatalog();
+        catalog.loadFromDatabase(db.connection());
+
+        db.updateFirstClassRate(csv.getTable().routeId(3), 2.0);
+        db.updateFirstClassRate(csv.getTable().routeId(4), 3.0);
+        catalog.reloadFromDatabase(db.connection());
+        assertTrue(db.changes.isEmpty());
+    }
+
+    @Test
+    public void changesTrimmedByAnotherClientForceFullLoad() {
+        ConnectionCatalog catalog = new ConnectionCatalog();
+        catalog.loadFromDatabase(db.connection());
+
+        db.updateFirstClassRate(csv.getTable().routeId(3), 2.0);
+        new ConnectionCatalog().loadFromDatabase(db.connection()); // applies and trims the change
+        assertTrue(db.changes.isEmpty());
+
+        int scans = db.scans;
+        assertEquals(csv.getTable().size(), catalog.reloadFromDatabase(db.connection()));
+        assertEquals(scans + 1, db.scans);
+        assertEquals(fullLoadChecksum(), catalog.getTable().checksum());
+    }
+
+    @Test
+    public void failedLoadKeepsPreviousContents() {
+        ConnectionCatalog catalog = new ConnectionCatalog();
+        catalog.loadFromDatabase(db.connection());
+        long checksum = catalog.getTable().checksum();
+        int version = catalog.getVersion();
+
+        db.failAfterRows = 100;
+        assertEquals(-1, catalog.loadFromDatabase(db.connection()));
+        assertEquals(checksum, catalog.getTable().checksum());
+        assertEquals(version, catalog.getVersion());
+    }
+
+    @Test
+    public void failedReloadKeepsPreviousContents() {
+        ConnectionCatalog catalog = new ConnectionCatalog();
+        catalog.loadFromDatabase(db.connection());
+        long checksum = catalog.getTable().checksum();
+
+        for (int i = 0; i < 5; i++) db.insert(newConnection("R9999" + i));
+        db.updateFirstClassRate(csv.getTable().routeId(5), 1.0);
+        db.failAfterRows = 2;
+        assertEquals(-1, catalog.reloadFromDatabase(db.connection()));
+        assertEquals(checksum, catalog.getTable().checksum());
+        assertEquals(1, db.changes.size());
+
+        // Nothing was consumed, so the next reload still finds every change
+        db.failAfterRows = -1;
+        assertEquals(6, catalog.reloadFromDatabase(db.connection()));
+        assertEquals(fullLoadChecksum(), catalog.getTable().checksum());
+    }
+
+    @Test
+    public void snapshotIsUsedOnlyWhileTheDatabaseIsUnchanged() throws IOException {
+        File snapshot = File.createTempFile("catalog", ".snapshot");
+        snapshot.deleteOnExit();
+        String path = snapshot.getPath();
+
+        ConnectionCatalog first = new ConnectionCatalog();
+        assertEquals(csv.getTable().size(), first.loadFromDatabaseWithSnapshot(db.connection(), path));
+        assertEquals(1, db.scans);
+
+        ConnectionCatalog second = new ConnectionCatalog();
+        assertEquals(csv.getTable().size(), second.loadFromDatabaseWithSnapshot(db.connection(), path));
+        assertEquals(1, db.scans);
+        assertEquals(csv.getTable().checksum(), second.getTable().checksum());
+
+        // A catalog restored from the snapshot still reloads incrementally
+        db.insert(newConnection("R99999"));
+        assertEquals(1, second.reloadFromDatabase(db.connection()));
+        assertEquals(fullLoadChecksum(), second.getTable().checksum());
+
+        // After an update the snapshot no longer matches and is rebuilt from the database
+        db.updateFirstClassRate(csv.getTable().routeId(5), 1.0);
+        int scans = db.scans;
+        ConnectionCatalog third = new ConnectionCatalog();
+        third.loadFromDatabaseWithSnapshot(db.connection(), path);
+        assertEquals(scans + 1, db.scans);
+        assertEquals(fullLoadChecksum(), third.getTable().checksum());
+    }
+
+    @Test
+    public void recreatedDatabaseIsNotServedFromSnapshot() throws IOException {
+        File snapshot = File.createTempFile("catalog", ".snapshot");
+        snapshot.deleteOnExit();
+        String path = snapshot.getPath();
+        new ConnectionCatalog().loadFromDatabaseWithSnapshot(db.connection(), path);
+
+        // Deleted and imported again with other rows: same last rowid and change log position
+        FakeDatabase recreated = new FakeDatabase(csv);
+        recreated.connections.get(5)[8] = 1.0;
+        ConnectionCatalog catalog = new ConnectionCatalog();
+        assertEquals(csv.getTable().size(), catalog.loadFromDatabaseWithSnapshot(recreated.connection(), path));
+        assertEquals(1, recreated.scans);
+        assertEquals(1.0, catalog.getTable().firstClassRate(5), 0);
+    }
+
+    @Test
+    public void recreatedDatabaseForcesFullReload() {
+        ConnectionCatalog catalog = new ConnectionCatalog();
+        catalog.loadFromDatabase(db.connection());
+
+        FakeDatabase recreated = new FakeDatabase(csv);
+        recreated.connections.get(5)[8] = 1.0;
+        assertEquals(csv.getTable().size(), catalog.reloadFromDatabase(recreated.connection()));
+        assertEquals(1.0, catalog.getTable().firstClassRate(5), 0);
+    }
+}
@@ -0,0 +1,69 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Every days-of-operation value and day filter goes through DayMask.parse, and overnight
+ * legs through DayMask.shift
+ */
+public class DayMaskTest {
+
+    private static final int MON = DayMask.of(0);
+    private static final int TUE = DayMask.of(1);
+    private static final int WED = DayMask.of(2);
+    private static final int FRI = DayMask.of(4);
+    private static final int SAT = DayMask.of(5);
+    private static final int SUN = DayMask.of(6);
+
+    @Test
+    public void dailyIsEveryDay() {
+        assertEquals(DayMask.ALL, DayMask.parse("Daily"));
+        assertEquals(DayMask.ALL, DayMask.parse(" daily "));
+        assertEquals(DayMask.ALL, DayMask.parse("\"Daily\""));
+        assertEquals("Daily", DayMask.toString(DayMask.ALL));
+    }
+
+    @Test
+    public void rangesIncludeBothEnds() {
+        assertEquals(MON | TUE | WED, DayMask.parse("Mon-Wed"));
+        assertEquals(FRI | SAT | SUN, DayMask.parse("Fri-Sun"));
+        assertEquals(SAT, DayMask.parse("Sat-Sat"));
+    }
+
+    @Test
+    public void rangesWrapAroundTheWeek() {
+        assertEquals(FRI | SAT | SUN | MON, DayMask.parse("Fri-Mon"));
+        assertEquals(SUN | MON, DayMask.parse("Sun-Mon"));
+        assertEquals(DayMask.ALL & ~SAT, DayMask.parse("Sun-Fri"));
+    }
+
+    @Test
+    public void listsMayBeQuotedSpacedOrMixedWithRanges() {
+        assertEquals(MON | WED | FRI, DayMask.parse("Mon,Wed,Fri"));
+        assertEquals(MON | WED | FRI, DayMask.parse("\"Mon, Wed, Fri\""));
+        assertEquals(MON | FRI | SAT | SUN, DayMask.parse("Mon, Fri-Sun"));
+        assertEquals(TUE | SAT, DayMask.parse("tue,SAT"));
+        assertEquals("Mon, Wed, Fri", DayMask.toString(MON | WED | FRI));
+    }
+
+    @Test
+    public void unknownDaysAreIgnored() {
+        assertEquals(DayMask.NONE, DayMask.parse(null));
+        assertEquals(DayMask.NONE, DayMask.parse(""));
+        assertEquals(MON, DayMask.parse("Mon,Funday"));
+        assertEquals(DayMask.NONE, DayMask.parse("Mon-Funday"));
+    }
+
+    @Test
+    public void shiftRollsSundayOverToMonday() {
+        assertEquals(MON, DayMask.shift(SUN, 1));
+        assertEquals(TUE | SAT, DayMask.shift(MON | FRI, 1));
+        assertEquals(MON | TUE, DayMask.shift(SAT | SUN, 2));
+        assertEquals(SUN, DayMask.shift(MON, -1));
+        assertEquals(FRI, DayMask.shift(FRI, 7));
+        assertEquals(DayMask.ALL, DayMask.shift(DayMask.ALL, 3));
+        assertEquals(DayMask.NONE, DayMask.shift(DayMask.NONE, 1));
+    }
+}
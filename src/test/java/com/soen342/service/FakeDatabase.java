@@ -0,0 +1,170 @@
+package com.soen342.service;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * In-memory stand-in for the SQLite database, answering only the statements
+ * ConnectionCatalog sends (the sqlite-jdbc driver is not needed to run the tests).
+ * Updates and deletes are logged to the change log the way DatabaseManager's triggers do.
+ */
+class FakeDatabase {
+
+    // rowid, route_id, departure_city, arrival_city, departure_time, arrival_time,
+    // train_type, days_of_operation, first_class_rate, second_class_rate
+    final List<Object[]> connections = new ArrayList<>();
+
+    // change_id, route_id, change_type
+    final List<Object[]> changes = new ArrayList<>();
+
+    // Each database gets its own generation ID, like DatabaseManager's random one
+    private static long generations;
+    final long generation = ++generations;
+
+    private long nextRowId = 1;
+    private long changeSequence;
+
+    // Rowid scans started so far
+    int scans;
+
+    // When >= 0, the rowid scan fails after returning this many rows
+    int failAfterRows = -1;
+
+    FakeDatabase(ConnectionCatalog source) {
+        for (com.soen342.domain.Connection conn : source.getAllConnections()) insert(conn);
+    }
+
+    void insert(com.soen342.domain.Connection conn) {
+        Parameters p = conn.getParameters();
+        connections.add(new Object[] {nextRowId++, conn.getRouteID(), p.getDepartureCity(), p.getArrivalCity(),
+                p.getDepartureTime().toString(), p.getArrivalTime().toString(), p.getTrainType(),
+                p.getDaysOfOperation(), p.getFirstClassRate(), p.getSecondClassRate()});
+    }
+
+    void updateFirstClassRate(String routeID, double rate) {
+        find(routeID)[8] = rate;
+        log(routeID, "UPDATE");
+    }
+
+    void delete(String routeID) {
+        connections.remove(find(routeID));
+        log(routeID, "DELETE");
+    }
+
+    private Object[] find(String routeID) {
+        for (Object[] row : connections) {
+            if (row[1].equals(routeID)) return row;
+        }
+        throw new IllegalArgumentException(routeID);
+    }
+
+    private void log(String routeID, String type) {
+        changes.add(new Object[] {++changeSequence, routeID, type});
+    }
+
+    Connection connection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("prepareStatement")) return statement((String) args[0]);
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private PreparedStatement statement(String sql) {
+        Map<Integer, Object> params = new HashMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {PreparedStatement.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setLong":
+                        case "setString":
+                            params.put((Integer) args[0], args[1]);
+                            return null;
+                        case "setFetchSize":
+                        case "close":
+                            return null;
+                        case "executeQuery":
+                            return query(sql, params);
+                        case "executeUpdate":
+                            return update(sql, params);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private ResultSet query(String sql, Map<Integer, Object> params) {
+        List<Object[]> result = new ArrayList<>();
+        int failAfter = -1;
+        if (sql.contains("FROM catalog_generation")) {
+            result.add(new Object[] {generation});
+        } else if (sql.contains("sqlite_sequence")) {
+            if (changeSequence > 0) result.add(new Object[] {changeSequence});
+        } else if (sql.contains("MAX(rowid)")) {
+            long max = 0;
+            for (Object[] row : connections) max = Math.max(max, (Long) row[0]);
+            result.add(new Object[] {max});
+        } else if (sql.contains("FROM connection_changes")) {
+            for (Object[] change : changes) {
+                long id = (Long) change[0];
+                if (id > (Long) params.get(1) && id <= (Long) params.get(2)) result.add(change);
+            }
+        } else if (sql.contains("route_id = ?")) {
+            for (Object[] row : connections) {
+                if (row[1].equals(params.get(1))) result.add(row.clone());
+            }
+        } else if (sql.contains("rowid > ?")) {
+            scans++;
+            failAfter = failAfterRows;
+            for (Object[] row : connections) {
+                if ((Long) row[0] > (Long) params.get(1)) result.add(row.clone());
+            }
+        } else {
+            throw new UnsupportedOperationException(sql);
+        }
+        return resultSet(result, failAfter);
+    }
+
+    private int update(String sql, Map<Integer, Object> params) {
+        if (!sql.startsWith("DELETE FROM connection_changes")) throw new UnsupportedOperationException(sql);
+        int deleted = 0;
+        for (Iterator<Object[]> it = changes.iterator(); it.hasNext(); ) {
+            if ((Long) it.next()[0] <= (Long) params.get(1)) {
+                it.remove();
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private ResultSet resultSet(List<Object[]> rows, int failAfter) {
+        int[] position = {-1};
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            if (failAfter >= 0 && position[0] + 1 == failAfter) throw new SQLException("connection lost");
+                            return ++position[0] < rows.size();
+                        case "getString":
+                            return (String) rows.get(position[0])[(Integer) args[0] - 1];
+                        case "getLong":
+                            return ((Number) rows.get(position[0])[(Integer) args[0] - 1]).longValue();
+                        case "getDouble":
+                            return ((Number) rows.get(position[0])[(Integer) args[0] - 1]).doubleValue();
+                        case "close":
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
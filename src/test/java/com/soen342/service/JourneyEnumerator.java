@@ -0,0 +1,108 @@
+package com.soen342.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Brute-force reference for the routers: every journey of up to maxLegs legs from one origin
+ * that starts on one weekday, with the layover rules, no city visited twice and the search
+ * filters applied. Times are absolute minutes since midnight of the start day.
+ */
+final class JourneyEnumerator {
+
+    /**
+     * One journey and its arrival since midnight of the start day
+     */
+    static final class Journey {
+        final int[] rows;
+        final int arrival;
+
+        Journey(int[] rows, int arrival) {
+            this.rows = rows;
+            this.arrival = arrival;
+        }
+    }
+
+    private final ConnectionCatalog catalog;
+    private final ConnectionTable table;
+    private final SearchFilters filters;
+    private final int startDay;
+    private final int maxLegs;
+    private final List<List<Journey>> journeysTo = new ArrayList<>();
+
+    private JourneyEnumerator(ConnectionCatalog catalog, SearchFilters filters, int startDay, int maxLegs) {
+        this.catalog = catalog;
+        this.table = catalog.getTable();
+        this.filters = filters;
+        this.startDay = startDay;
+        this.maxLegs = maxLegs;
+        for (int city = 0; city < catalog.getCityDictionary().size(); city++) journeysTo.add(new ArrayList<>());
+    }
+
+    static JourneyEnumerator enumerate(ConnectionCatalog catalog, SearchFilters filters, int origin,
+                                       int startDay, int maxLegs) {
+        JourneyEnumerator enumerator = new JourneyEnumerator(catalog, filters, startDay, maxLegs);
+        boolean[] visited = new boolean[catalog.getCityDictionary().size()];
+        visited[origin] = true;
+        enumerator.extend(new int[0], origin, -1, 0.0, 0.0, visited);
+        return enumerator;
+    }
+
+    // Tries every row leaving city after arriving there at minute arrival (-1 at the origin)
+    private void extend(int[] rows, int city, int arrival, double fcRate, double scRate, boolean[] visited) {
+        for (int row : catalog.getDeparturesFrom(city)) {
+            int departureMinute = table.departureMinute(row);
+            int departure;
+            if (arrival < 0) {
+                if (departureMinute < filters.earliestDepartureMinute()) continue;
+                departure = departureMinute;
+            } else {
+                int arrivalMinute = arrival % ConnectionTable.MINUTES_PER_DAY;
+                if (!ConnectionCatalog.isLayoverValid(arrivalMinute, departureMinute)) continue;
+                departure = arrival + Math.floorMod(departureMinute - arrivalMinute, ConnectionTable.MINUTES_PER_DAY);
+            }
+
+            int weekday = DayMask.of((startDay + departure / ConnectionTable.MINUTES_PER_DAY) % 7);
+            if ((table.dayMask(row) & weekday) == 0 || !filters.trainTypeMatches(table, row)) continue;
+            int to = table.arrivalCity(row);
+            if (visited[to]) continue;
+
+            // Both checks only get stricter as a journey grows, so a failing prefix is dropped
+            int nextArrival = departure + table.durationMinutes(row);
+            double nextFC = fcRate + table.firstClassRate(row);
+            double nextSC = scRate + table.secondClassRate(row);
+            if (!filters.arrivesInTime(0, nextArrival) || !filters.withinBudget(nextFC, nextSC)) continue;
+
+            int[] next = Arrays.copyOf(rows, rows.length + 1);
+            next[rows.length] = row;
+            journeysTo.get(to).add(new Journey(next, nextArrival));
+            if (next.length < maxLegs) {
+                visited[to] = true;
+                extend(next, to, nextArrival, nextFC, nextSC, visited);
+                visited[to] = false;
+            }
+        }
+    }
+
+    List<Journey> journeysTo(int destination) {
+        return journeysTo.get(destination);
+    }
+
+    // Earliest arrival at destination with at most legs legs, Integer.MAX_VALUE if there is none
+    int earliestArrival(int destination, int legs) {
+        int earliest = Integer.MAX_VALUE;
+        for (Journey journey : journeysTo(destination)) {
+            if (journey.rows.length <= legs) earliest = Math.min(earliest, journey.arrival);
+        }
+        return earliest;
+    }
+
+    // The enumerated journey taking exactly these rows, or null if rows is not a valid journey
+    Journey find(int destination, int[] rows) {
+        for (Journey journey : journeysTo(destination)) {
+            if (Arrays.equals(journey.rows, rows)) return journey;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Loading in parallel chunks must build the same table as loadFromFile
+ */
+public class ParallelLoadTest {
+
+    private static void assertSameLoad(String path) {
+        ConnectionCatalog sequential = new ConnectionCatalog();
+        sequential.loadFromFile(path);
+        ConnectionCatalog parallel = new ConnectionCatalog();
+        LoadReport report = parallel.loadFromFileParallel(path);
+
+        assertEquals(sequential.getTable().size(), report.getRows());
+        assertEquals(sequential.getTable().size(), parallel.getTable().size());
+        assertEquals(sequential.getTable().checksum(), parallel.getTable().checksum());
+        assertEquals(sequential.getCityDictionary().size(), parallel.getCityDictionary().size());
+        for (int c = 0; c < sequential.getCityDictionary().size(); c++) {
+            assertEquals(sequential.getCityDictionary().nameOf(c), parallel.getCityDictionary().nameOf(c));
+        }
+
+        // The chunks' own dictionaries must be merged into the same codes a row-by-row load gives
+        ConnectionTable expected = sequential.getTable();
+        ConnectionTable table = parallel.getTable();
+        assertEquals(expected.getTrainTypeNames(), table.getTrainTypeNames());
+        assertEquals(expected.getDaysLabels(), table.getDaysLabels());
+        for (int row = 0; row < expected.size(); row++) {
+            assertEquals(expected.trainType(row), table.trainType(row));
+            assertEquals(expected.daysLabel(row), table.daysLabel(row));
+        }
+    }
+
+    @Test
+    public void shippedCsvLoadsTheSame() {
+        assertSameLoad(TestNetwork.CSV_PATH);
+    }
+
+    @Test
+    public void largeFileSplitIntoChunksLoadsTheSame() throws IOException {
+        // About 5 MB: the shipped rows repeated under new route IDs, so the file is split into several chunks
+        List<String> rows = Files.readAllLines(Paths.get(TestNetwork.CSV_PATH), StandardCharsets.UTF_8);
+        List<String> lines = new ArrayList<>();
+        lines.add(rows.get(0));
+        for (int copy = 0; copy < 75; copy++) {
+            for (String row : rows.subList(1, rows.size())) lines.add("C" + copy + row);
+        }
+        File file = File.createTempFile("network", ".csv");
+        file.deleteOnExit();
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+
+        ConnectionCatalog parallel = new ConnectionCatalog();
+        assertTrue(parallel.loadFromFileParallel(file.getPath()).getChunks() > 1);
+        assertSameLoad(file.getPath());
+    }
+}
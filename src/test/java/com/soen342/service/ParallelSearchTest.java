@@ -0,0 +1,33 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Splitting the indirect search by first leg must not change its results or their order
+ */
+public class ParallelSearchTest {
+
+    private ConnectionCatalog catalog;
+
+    @Before
+    public void setUp() {
+        catalog = TestNetwork.load();
+    }
+
+    @Test
+    public void matchesSearchIndirect() {
+        int[] trips = new int[1];
+        TestNetwork.forEachQuery(catalog, (p, origin, destination) -> {
+            List<TripCandidate> expected = catalog.searchIndirect(p, origin, destination);
+            assertEquals(expected, catalog.searchIndirectParallel(p, origin, destination));
+            trips[0] += expected.size();
+        });
+        assertTrue(trips[0] > 0);
+    }
+}
@@ -0,0 +1,74 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * The Pareto search must return one trip for every non-dominated (elapsed time, fare, legs)
+ * combination among the trips of searchDirect + searchIndirect, fastest first
+ */
+public class ParetoSearchTest {
+
+    private ConnectionCatalog catalog;
+
+    @Before
+    public void setUp() {
+        catalog = TestNetwork.load();
+    }
+
+    private static double fare(TripCandidate trip, boolean firstClass) {
+        return firstClass ? trip.getTotalFCRate() : trip.getTotalSCRate();
+    }
+
+    private static boolean dominates(TripCandidate a, TripCandidate b, boolean firstClass) {
+        return a.getElapsedMinutes() <= b.getElapsedMinutes() && fare(a, firstClass) <= fare(b, firstClass)
+                && a.getNumberOfConnections() <= b.getNumberOfConnections();
+    }
+
+    private static String criteria(TripCandidate trip, boolean firstClass) {
+        return trip.getElapsedMinutes() + "/" + fare(trip, firstClass) + "/" + trip.getNumberOfConnections();
+    }
+
+    private void assertFrontMatches(Parameters p, int origin, int destination, boolean firstClass) {
+        List<TripCandidate> all = new ArrayList<>(catalog.searchDirect(p, origin, destination));
+        all.addAll(catalog.searchIndirect(p, origin, destination));
+        Set<String> expected = new TreeSet<>();
+        for (TripCandidate trip : all) {
+            boolean dominated = false;
+            for (TripCandidate other : all) {
+                if (dominates(other, trip, firstClass) && !criteria(other, firstClass).equals(criteria(trip, firstClass))) {
+                    dominated = true;
+                }
+            }
+            if (!dominated) expected.add(criteria(trip, firstClass));
+        }
+
+        List<TripCandidate> front = new ParetoSearch(catalog, firstClass, ParetoSearch.DEFAULT_MAX_LEGS)
+                .search(p, origin, destination);
+        Set<String> found = new TreeSet<>();
+        for (TripCandidate trip : front) found.add(criteria(trip, firstClass));
+        assertEquals(expected, found);
+        assertEquals(expected.size(), front.size());
+        for (int i = 1; i < front.size(); i++) {
+            assertTrue(front.get(i - 1).getElapsedMinutes() <= front.get(i).getElapsedMinutes());
+        }
+    }
+
+    @Test
+    public void frontMatchesBruteForce() {
+        TestNetwork.forEachQuery(catalog, (p, origin, destination) -> {
+            assertFrontMatches(p, origin, destination, false);
+            assertFrontMatches(p, origin, destination, true);
+        });
+    }
+}
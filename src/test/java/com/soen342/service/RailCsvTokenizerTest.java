@@ -0,0 +1,100 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * The tokenizer must split, trim and parse every record the way the regex-based parser
+ * it replaced did
+ */
+public class RailCsvTokenizerTest {
+
+    // The parser loadFromFile used before the tokenizer
+    private static String[] regexSplit(String line) {
+        String[] parts = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = parts[i].replace("\"", "").trim();
+        }
+        return parts;
+    }
+
+    private static int regexMinutes(String field) {
+        String[] fields = field.split(" ")[0].trim().split(":");
+        return Integer.parseInt(fields[0]) * 60 + Integer.parseInt(fields[1]);
+    }
+
+    private static List<String> csvLines() throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(TestNetwork.CSV_PATH, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) lines.add(line);
+        }
+        return lines;
+    }
+
+    private static void assertSameRecord(String line, RailCsvTokenizer csv) throws IOException {
+        assertTrue(csv.nextRecord());
+        String[] expected = regexSplit(line);
+        assertEquals(expected.length, csv.fieldCount());
+        for (int i = 0; i < expected.length; i++) assertEquals(expected[i], csv.text(i));
+        assertEquals(regexMinutes(expected[3]), csv.minutes(3));
+        assertEquals(regexMinutes(expected[4]), csv.minutes(4));
+        assertEquals(Double.parseDouble(expected[7]), csv.decimal(7), 0);
+        assertEquals(Double.parseDouble(expected[8]), csv.decimal(8), 0);
+    }
+
+    @Test
+    public void tokenizesShippedCsvLikeRegexSplit() throws IOException {
+        List<String> lines = csvLines();
+        try (BufferedReader reader = new BufferedReader(new FileReader(TestNetwork.CSV_PATH, StandardCharsets.UTF_8))) {
+            RailCsvTokenizer csv = new RailCsvTokenizer(reader);
+            assertTrue(csv.nextRecord()); // header
+            for (String line : lines.subList(1, lines.size())) assertSameRecord(line, csv);
+            assertFalse(csv.nextRecord());
+        }
+    }
+
+    @Test
+    public void tokenizesQuotedFieldsAndSpacesLikeRegexSplit() throws IOException {
+        String[] lines = {
+            "R1, \"Paris, Nord\" ,Lyon, 08:05 ,09:10 (+1d),TGV,\"Mon,Tue\", 97.50,49.25",
+            "\"R2\",Köln,\"Zürich\",23:59,00:01 (+1d),ICE,Daily,0.5,1e2",
+            "R3,A,B,7:05,12:00,RJX,Fri-Sun,115,70",
+        };
+        for (String line : lines) assertSameRecord(line, new RailCsvTokenizer(new StringReader(line)));
+
+        // The same records read from a char array, as the parallel loader does
+        char[] data = String.join("\n", lines).toCharArray();
+        RailCsvTokenizer csv = new RailCsvTokenizer(data, 0, data.length);
+        for (String line : lines) assertSameRecord(line, csv);
+        assertFalse(csv.nextRecord());
+    }
+
+    @Test
+    public void loadFromFileMatchesRegexParser() throws IOException {
+        ConnectionTable expected = new ConnectionTable(new CityDictionary());
+        List<String> lines = csvLines();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] parts = regexSplit(line);
+            if (parts.length < 9) continue;
+            expected.add(parts[0], parts[1], parts[2], regexMinutes(parts[3]), regexMinutes(parts[4]), parts[5],
+                    ConnectionCatalog.expandDays(parts[6]), Double.parseDouble(parts[7]), Double.parseDouble(parts[8]));
+        }
+
+        ConnectionCatalog catalog = new ConnectionCatalog();
+        catalog.loadFromFile(TestNetwork.CSV_PATH);
+        assertEquals(expected.size(), catalog.getTable().size());
+        assertEquals(expected.checksum(), catalog.getTable().checksum());
+    }
+}
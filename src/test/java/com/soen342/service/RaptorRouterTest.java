@@ -0,0 +1,93 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * The RAPTOR router must return, for each start day, the same Pareto set of (legs, arrival)
+ * as an exhaustive enumeration: for every round, the earliest journey with that many legs
+ * when it beats every journey with fewer legs
+ */
+public class RaptorRouterTest {
+
+    private static final int MAX_LEGS = RaptorRouter.DEFAULT_MAX_TRANSFERS + 1;
+
+    private ConnectionCatalog catalog;
+    private RaptorRouter router;
+
+    @Before
+    public void setUp() {
+        catalog = TestNetwork.load();
+        router = new RaptorRouter(catalog);
+    }
+
+    // Minutes since midnight of the start day at which the trip arrives
+    private int arrivalOf(TripCandidate trip) {
+        return catalog.getTable().departureMinute(trip.getRows()[0]) + trip.getElapsedMinutes();
+    }
+
+    // Runs every sampled query of filter on each start day and returns how many results
+    // took more than one round
+    private int assertParetoSets(TestNetwork.Filter filter) {
+        int multiRound = 0;
+        for (int origin : TestNetwork.origins(catalog)) {
+            for (int startDay = 0; startDay < 7; startDay++) {
+                TestNetwork.Filter day = filter.running(DayMask.toString(DayMask.of(startDay)));
+                SearchFilters filters = SearchFilters.of(day.between(catalog, origin, origin), catalog.getTable());
+                JourneyEnumerator all = JourneyEnumerator.enumerate(catalog, filters, origin, startDay, MAX_LEGS);
+
+                for (int destination = 0; destination < catalog.getCityDictionary().size(); destination++) {
+                    if (destination == origin) continue;
+                    Parameters p = day.between(catalog, origin, destination);
+                    List<TripCandidate> found = router.search(p, origin, destination, RaptorRouter.DEFAULT_MAX_TRANSFERS);
+
+                    int i = 0;
+                    int previous = Integer.MAX_VALUE;
+                    for (int legs = 1; legs <= MAX_LEGS; legs++) {
+                        int earliest = all.earliestArrival(destination, legs);
+                        if (earliest >= previous) continue;
+                        previous = earliest;
+
+                        assertTrue(i < found.size());
+                        TripCandidate trip = found.get(i++);
+                        assertEquals(legs, trip.getRows().length);
+                        assertNotNull(all.find(destination, trip.getRows()));
+                        assertEquals(earliest, arrivalOf(trip));
+                        if (legs > 1) multiRound++;
+                    }
+                    assertEquals(i, found.size());
+                }
+            }
+        }
+        return multiRound;
+    }
+
+    @Test
+    public void paretoSetsMatchEnumeration() {
+        assertTrue(assertParetoSets(TestNetwork.ANY) > 0);
+    }
+
+    @Test
+    public void departureAndArrivalTimeMatchEnumeration() {
+        assertParetoSets(TestNetwork.ANY.departingFrom("07:00:00").arrivingBy("22:00:00"));
+    }
+
+    @Test
+    public void trainTypeMatchesEnumeration() {
+        assertParetoSets(TestNetwork.ANY.on("ICE"));
+    }
+
+    @Test
+    public void rateCeilingMatchesEnumeration() {
+        assertParetoSets(TestNetwork.ANY.firstClassUnder(150));
+        assertParetoSets(TestNetwork.ANY.secondClassUnder(90));
+    }
+}
@@ -0,0 +1,119 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * The region partition must give the same bounds as the dense LowerBounds, and searching
+ * through it the same trips, in the same order, as searching the whole catalog
+ */
+public class RegionPartitionTest {
+
+    private ConnectionCatalog dense;
+    private ConnectionCatalog partitioned;
+
+    @Before
+    public void setUp() {
+        dense = TestNetwork.load();
+        partitioned = TestNetwork.load();
+        partitioned.setPartitioned(true);
+    }
+
+    private int cityCount() {
+        return dense.getCityDictionary().size();
+    }
+
+    @Test
+    public void everyRowIsInOneRegionOrBetweenRegions() {
+        RegionPartition regions = dense.getRegions();
+        ConnectionTable table = dense.getTable();
+        int[] seen = new int[table.size()];
+        for (int r = 0; r < regions.getRegionCount(); r++) {
+            for (int row : regions.getRegionRows(r)) {
+                assertEquals(r, regions.regionOf(table.departureCity(row)));
+                assertEquals(r, regions.regionOf(table.arrivalCity(row)));
+                seen[row]++;
+            }
+        }
+        for (int row : regions.getOverlayRows()) {
+            int from = table.departureCity(row);
+            int to = table.arrivalCity(row);
+            if (regions.regionOf(from) != regions.regionOf(to)) {
+                assertTrue(regions.isBorderStation(from) && regions.isBorderStation(to));
+                seen[row]++;
+            }
+        }
+        for (int row = 0; row < table.size(); row++) assertEquals(1, seen[row]);
+    }
+
+    @Test
+    public void boundsMatchDenseBounds() {
+        LowerBounds bounds = dense.getLowerBounds();
+        RegionPartition regions = dense.getRegions();
+        for (int destination = 0; destination < cityCount(); destination++) {
+            DestinationBounds combined = regions.boundsTo(destination);
+            for (int city = 0; city < cityCount(); city++) {
+                assertEquals(bounds.minMinutes(city, destination), combined.minMinutes(city));
+                assertEquals(bounds.minFCRate(city, destination), combined.minFCRate(city), 0);
+                assertEquals(bounds.minSCRate(city, destination), combined.minSCRate(city), 0);
+                assertEquals(bounds.minLegs(city, destination), combined.minLegs(city));
+                assertEquals(bounds.minLegs(city, destination), regions.minLegs(city, destination));
+            }
+        }
+    }
+
+    @Test
+    public void partitionedSearchMatchesSearchIndirect() {
+        int[] trips = new int[1];
+        TestNetwork.forEachQuery(dense, (p, origin, destination) -> {
+            List<TripCandidate> expected = dense.searchIndirect(p, origin, destination);
+            assertEquals(expected, dense.searchIndirectPartitioned(p, origin, destination));
+            trips[0] += expected.size();
+        });
+        assertTrue(trips[0] > 0);
+    }
+
+    @Test
+    public void partitionedCatalogSearchesLikeDenseCatalog() {
+        assertNull(partitioned.getLowerBounds());
+        assertTrue(partitioned.isPartitioned());
+        TestNetwork.forEachQuery(dense, (p, origin, destination) -> {
+            assertEquals(dense.isReachable(origin, destination, ConnectionCatalog.MAX_INDIRECT_LEGS),
+                    partitioned.isReachable(origin, destination, ConnectionCatalog.MAX_INDIRECT_LEGS));
+            assertEquals(dense.searchIndirect(p, origin, destination), partitioned.searchIndirect(p, origin, destination));
+            assertEquals(dense.searchIndirect(p, origin, destination), partitioned.searchIndirectParallel(p, origin, destination));
+            assertEquals(dense.searchAStar(p, origin, destination, 0), partitioned.searchAStar(p, origin, destination, 0));
+        });
+    }
+
+    @Test
+    public void partitionedSnapshotLeavesOutDenseBounds() throws IOException {
+        File snapshot = File.createTempFile("catalog", ".snapshot");
+        snapshot.deleteOnExit();
+        CatalogSnapshot.write(partitioned, TestNetwork.CSV_PATH, snapshot.getPath());
+
+        ConnectionCatalog restored = new ConnectionCatalog();
+        restored.setPartitioned(true);
+        assertTrue(CatalogSnapshot.read(restored, TestNetwork.CSV_PATH, snapshot.getPath()));
+        assertNull(restored.getLowerBounds());
+
+        // A dense catalog rebuilds the bounds the snapshot left out
+        ConnectionCatalog denseRestored = new ConnectionCatalog();
+        assertTrue(CatalogSnapshot.read(denseRestored, TestNetwork.CSV_PATH, snapshot.getPath()));
+        assertNotNull(denseRestored.getLowerBounds());
+        Parameters p = TestNetwork.ANY.between(dense, 0, 1);
+        assertEquals(dense.searchIndirect(p, 0, 1), restored.searchIndirect(p, 0, 1));
+        assertEquals(dense.searchIndirect(p, 0, 1), denseRestored.searchIndirect(p, 0, 1));
+    }
+}
@@ -0,0 +1,90 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.soen342.domain.Parameters;
+import com.soen342.domain.Search;
+
+/**
+ * A budget must stop the indirect search after exactly the allowed number of expansions,
+ * keep the trips found so far and mark the result incomplete only when it ran out
+ */
+public class SearchBudgetTest {
+
+    private ConnectionCatalog catalog;
+    private Parameters params;
+    private int origin;
+    private int destination;
+    private List<TripCandidate> allTrips;
+    private long allExpansions;
+
+    @Before
+    public void setUp() {
+        catalog = TestNetwork.load();
+        origin = catalog.getCityDictionary().idOf("Amsterdam");
+        destination = catalog.getCityDictionary().idOf("Ghent");
+        params = TestNetwork.ANY.between(catalog, origin, destination);
+
+        SearchBudget unlimited = SearchBudget.unlimited();
+        allTrips = catalog.searchIndirect(params, origin, destination, unlimited);
+        allExpansions = unlimited.getExplored();
+        assertFalse(unlimited.isExhausted());
+        assertFalse(allTrips.isEmpty());
+        assertTrue(allExpansions > 1);
+    }
+
+    @Test
+    public void unlimitedBudgetFindsEveryTrip() {
+        assertEquals(catalog.searchIndirect(params, origin, destination), allTrips);
+    }
+
+    @Test
+    public void budgetOfExactlyTheNeededExpansionsIsNotExhausted() {
+        SearchBudget budget = new SearchBudget(0, allExpansions);
+        assertEquals(allTrips, catalog.searchIndirect(params, origin, destination, budget));
+        assertFalse(budget.isExhausted());
+        assertEquals(allExpansions, budget.getExplored());
+    }
+
+    @Test
+    public void smallerBudgetStopsAtItsLimitAndKeepsTripsFound() {
+        for (long limit = 1; limit < allExpansions; limit++) {
+            SearchBudget budget = new SearchBudget(0, limit);
+            List<TripCandidate> found = catalog.searchIndirect(params, origin, destination, budget);
+            assertTrue(budget.isExhausted());
+            assertEquals(limit, budget.getExplored());
+            assertTrue(allTrips.containsAll(found));
+        }
+    }
+
+    @Test
+    public void expiredTimeLimitStopsBeforeTheFirstExpansion() throws InterruptedException {
+        SearchBudget budget = new SearchBudget(1, 0);
+        Thread.sleep(5);
+        assertTrue(catalog.searchIndirect(params, origin, destination, budget).isEmpty());
+        assertTrue(budget.isExhausted());
+        assertEquals(0, budget.getExplored());
+    }
+
+    @Test
+    public void searchTripsMarksCutShortResultsIncompleteAndDoesNotCacheThem() {
+        SearchService service = new SearchService(catalog);
+        SearchResult cut = service.searchTrips(new Search(params), new SearchBudget(0, 1));
+        assertTrue(cut.isIncomplete());
+        assertEquals(1, cut.getExploredCount());
+        assertEquals(0, service.getCache().size());
+
+        SearchResult full = service.searchTrips(new Search(params), SearchBudget.unlimited());
+        assertFalse(full.isIncomplete());
+        assertEquals(allExpansions, full.getExploredCount());
+        assertEquals(allTrips, full.getIndirectCandidates());
+        assertEquals(1, service.getCache().size());
+    }
+}
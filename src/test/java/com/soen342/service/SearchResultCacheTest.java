@@ -0,0 +1,112 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Time;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.soen342.domain.Parameters;
+import com.soen342.domain.Search;
+
+/**
+ * The search result cache must evict the least recently used entry, drop everything when the
+ * catalog is reloaded, count hits and misses, and hand out copies callers can change freely
+ */
+public class SearchResultCacheTest {
+
+    private ConnectionCatalog catalog;
+    private SearchResultCache cache;
+    private SearchService service;
+
+    @Before
+    public void setUp() {
+        catalog = TestNetwork.load();
+        cache = new SearchResultCache(catalog, 2);
+        service = new SearchService(catalog, cache);
+    }
+
+    private static Search search(String from, String to) {
+        return new Search(new Parameters(from, to, null, null, null, null, 0, 0));
+    }
+
+    private SearchResultCache.Key key(String from, String to) {
+        return SearchResultCache.Key.of(search(from, to).getParameters());
+    }
+
+    @Test
+    public void countsMissesThenHits() {
+        SearchResult first = service.searchTrips(search("Amsterdam", "Ghent"));
+        assertFalse(first.isFromCache());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+
+        SearchResult second = service.searchTrips(search("Amsterdam", "Ghent"));
+        assertTrue(second.isFromCache());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(first.getDirectCandidates(), second.getDirectCandidates());
+        assertEquals(first.getIndirectCandidates(), second.getIndirectCandidates());
+    }
+
+    @Test
+    public void equivalentParametersShareAnEntry() {
+        Parameters daily = new Parameters("amsterdam", "GHENT", null, null, null, "Daily", 0, 0);
+        Parameters spelledOut = new Parameters("Amsterdam", "Ghent", null, null, "", "Mon-Sun", -1, 0);
+        assertEquals(SearchResultCache.Key.of(daily), SearchResultCache.Key.of(spelledOut));
+
+        Parameters later = new Parameters("Amsterdam", "Ghent", Time.valueOf("08:00:00"), null, null, null, 0, 0);
+        assertFalse(SearchResultCache.Key.of(daily).equals(SearchResultCache.Key.of(later)));
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedEntry() {
+        service.searchTrips(search("Amsterdam", "Ghent"));
+        service.searchTrips(search("Ghent", "Amsterdam"));
+        assertNotNull(cache.get(key("Amsterdam", "Ghent"))); // now the most recently used
+
+        service.searchTrips(search("Amsterdam", "Brussels"));
+        assertEquals(2, cache.size());
+        assertNull(cache.get(key("Ghent", "Amsterdam")));
+        assertNotNull(cache.get(key("Amsterdam", "Ghent")));
+        assertNotNull(cache.get(key("Amsterdam", "Brussels")));
+    }
+
+    @Test
+    public void reloadingTheCatalogDropsEveryEntry() {
+        service.searchTrips(search("Amsterdam", "Ghent"));
+        assertNotNull(cache.get(key("Amsterdam", "Ghent")));
+
+        catalog.loadFromFile(TestNetwork.CSV_PATH);
+        assertNull(cache.get(key("Amsterdam", "Ghent")));
+        assertEquals(0, cache.size());
+        assertFalse(service.searchTrips(search("Amsterdam", "Ghent")).isFromCache());
+    }
+
+    @Test
+    public void returnedResultsAreIndependentCopies() {
+        SearchResult computed = service.searchTrips(search("Amsterdam", "Ghent"));
+        List<TripCandidate> expected = List.copyOf(computed.getIndirectCandidates());
+        assertTrue(expected.size() > 1);
+
+        // Changing what one caller got must not show in what the next caller gets
+        computed.sort(TripOrder.PRICE_DESC);
+        computed.getSearchResultIndirect();
+        SearchResult hit = service.searchTrips(search("Amsterdam", "Ghent"));
+        hit.getIndirectCandidates().clear();
+
+        SearchResult next = service.searchTrips(search("Amsterdam", "Ghent"));
+        assertEquals(expected, next.getIndirectCandidates());
+        for (TripCandidate trip : next.getIndirectCandidates()) {
+            assertNull(trip.getTrip());
+            for (TripCandidate other : computed.getIndirectCandidates()) assertNotSame(other, trip);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.soen342.service;
+
+import java.sql.Time;
+import java.util.List;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * Shared fixture for the tests that run the search modes over the shipped network: the
+ * CSV path, the filter cases every comparison goes through and the queries to run them on
+ */
+final class TestNetwork {
+
+    static final String CSV_PATH = "src/main/java/com/soen342/resources/eu_rail_network.csv";
+
+    // Every ORIGIN_STRIDE-th city is used as an origin, with every other city as destination
+    private static final int ORIGIN_STRIDE = 6;
+
+    /**
+     * One combination of search filters (null / 0 = no filter)
+     */
+    static final class Filter {
+        final Time departureTime;
+        final Time arrivalTime;
+        final String trainType;
+        final String days;
+        final double firstClassRate;
+        final double secondClassRate;
+
+        private Filter(Time departureTime, Time arrivalTime, String trainType, String days,
+                       double firstClassRate, double secondClassRate) {
+            this.departureTime = departureTime;
+            this.arrivalTime = arrivalTime;
+            this.trainType = trainType;
+            this.days = days;
+            this.firstClassRate = firstClassRate;
+            this.secondClassRate = secondClassRate;
+        }
+
+        Filter departingFrom(String time) {
+            return new Filter(Time.valueOf(time), arrivalTime, trainType, days, firstClassRate, secondClassRate);
+        }
+
+        Filter arrivingBy(String time) {
+            return new Filter(departureTime, Time.valueOf(time), trainType, days, firstClassRate, secondClassRate);
+        }
+
+        Filter on(String trainType) {
+            return new Filter(departureTime, arrivalTime, trainType, days, firstClassRate, secondClassRate);
+        }
+
+        Filter running(String days) {
+            return new Filter(departureTime, arrivalTime, trainType, days, firstClassRate, secondClassRate);
+        }
+
+        Filter firstClassUnder(double rate) {
+            return new Filter(departureTime, arrivalTime, trainType, days, rate, secondClassRate);
+        }
+
+        Filter secondClassUnder(double rate) {
+            return new Filter(departureTime, arrivalTime, trainType, days, firstClassRate, rate);
+        }
+
+        Parameters between(ConnectionCatalog catalog, int origin, int destination) {
+            CityDictionary cities = catalog.getCityDictionary();
+            return new Parameters(cities.nameOf(origin), cities.nameOf(destination), departureTime, arrivalTime,
+                    trainType, days, firstClassRate, secondClassRate);
+        }
+    }
+
+    static final Filter ANY = new Filter(null, null, null, null, 0, 0);
+
+    // One case per kind of filter, plus a few combinations
+    static final List<Filter> FILTERS = List.of(
+            ANY,
+            ANY.running("Mon"),
+            ANY.running("Sat,Sun"),
+            ANY.departingFrom("08:00:00"),
+            ANY.arrivingBy("14:00:00"),
+            ANY.departingFrom("07:00:00").arrivingBy("22:00:00"),
+            ANY.on("ICE").firstClassUnder(300),
+            ANY.firstClassUnder(150),
+            ANY.secondClassUnder(90));
+
+    /**
+     * Receives one query of the sample
+     */
+    interface Query {
+        void run(Parameters p, int origin, int destination);
+    }
+
+    private TestNetwork() {
+    }
+
+    static ConnectionCatalog load() {
+        ConnectionCatalog catalog = new ConnectionCatalog();
+        catalog.loadFromFile(CSV_PATH);
+        return catalog;
+    }
+
+    // The cities the sample of queries starts from
+    static int[] origins(ConnectionCatalog catalog) {
+        int n = catalog.getCityDictionary().size();
+        int[] origins = new int[(n + ORIGIN_STRIDE - 1) / ORIGIN_STRIDE];
+        for (int i = 0; i < origins.length; i++) origins[i] = i * ORIGIN_STRIDE;
+        return origins;
+    }
+
+    // Runs query for every filter case on the sample of origin/destination pairs
+    static void forEachQuery(ConnectionCatalog catalog, Query query) {
+        for (Filter filter : FILTERS) forEachQuery(catalog, filter, query);
+    }
+
+    // Runs query for one filter case on the sample of origin/destination pairs
+    static void forEachQuery(ConnectionCatalog catalog, Filter filter, Query query) {
+        int n = catalog.getCityDictionary().size();
+        for (int origin : origins(catalog)) {
+            for (int destination = 0; destination < n; destination++) {
+                if (origin == destination) continue;
+                query.run(filter.between(catalog, origin, destination), origin, destination);
+            }
+        }
+    }
+}
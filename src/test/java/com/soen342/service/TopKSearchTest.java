@@ -0,0 +1,61 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.soen342.domain.Parameters;
+
+/**
+ * The top-k search must return the k best trips of searchDirect + searchIndirect under each
+ * order, so pruning partial itineraries against the k-th best never drops one of them
+ */
+public class TopKSearchTest {
+
+    private static final int[] KS = {1, 3};
+
+    private ConnectionCatalog catalog;
+
+    @Before
+    public void setUp() {
+        catalog = TestNetwork.load();
+    }
+
+    private static List<Double> metrics(List<TripCandidate> trips, TripOrder order) {
+        List<Double> metrics = new ArrayList<>();
+        for (TripCandidate trip : trips) metrics.add(order.metric(trip));
+        return metrics;
+    }
+
+    private void assertTopK(Parameters p, int origin, int destination) {
+        List<TripCandidate> all = new ArrayList<>(catalog.searchDirect(p, origin, destination));
+        all.addAll(catalog.searchIndirect(p, origin, destination));
+
+        for (TripOrder order : TripOrder.values()) {
+            List<TripCandidate> sorted = new ArrayList<>(all);
+            sorted.sort(order.comparator());
+            for (int k : KS) {
+                List<TripCandidate> best = new TopKSearch(catalog, k, order).search(p, origin, destination);
+                assertEquals(Math.min(k, all.size()), best.size());
+                assertTrue(all.containsAll(best));
+                // Ties may be broken either way, so compare the metrics rather than the trips
+                assertEquals(metrics(sorted.subList(0, best.size()), order), metrics(best, order));
+            }
+        }
+    }
+
+    @Test
+    public void keepsTheKBestTripsUnderEveryOrder() {
+        TestNetwork.forEachQuery(catalog, this::assertTopK);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveK() {
+        new TopKSearch(catalog, 0, TripOrder.DURATION_ASC);
+    }
+}
@@ -0,0 +1,58 @@
+package com.soen342.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Searching along the precomputed transfer patterns must find exactly the trips
+ * searchIndirect finds, also after the patterns are saved and loaded back
+ */
+public class TransferPatternsTest {
+
+    private ConnectionCatalog catalog;
+    private TransferPatterns patterns;
+
+    @Before
+    public void setUp() {
+        catalog = TestNetwork.load();
+        patterns = TransferPatterns.build(catalog);
+    }
+
+    private int assertSameTrips(TransferPatterns patterns) {
+        int[] trips = new int[1];
+        TestNetwork.forEachQuery(catalog, (p, origin, destination) -> {
+            List<TripCandidate> expected = catalog.searchIndirect(p, origin, destination);
+            List<TripCandidate> found = patterns.search(p, origin, destination);
+            assertEquals(expected.size(), found.size());
+            assertEquals(new HashSet<>(expected), new HashSet<>(found));
+            trips[0] += expected.size();
+        });
+        return trips[0];
+    }
+
+    @Test
+    public void matchesSearchIndirect() {
+        assertTrue(assertSameTrips(patterns) > 0);
+    }
+
+    @Test
+    public void savedPatternsSearchTheSame() throws IOException {
+        File file = File.createTempFile("patterns", ".txt");
+        file.deleteOnExit();
+        patterns.save(file.getPath());
+
+        TransferPatterns loaded = TransferPatterns.load(catalog, file.getPath());
+        assertNotNull(loaded);
+        assertEquals(patterns.size(), loaded.size());
+        assertTrue(assertSameTrips(loaded) > 0);
+    }
+}